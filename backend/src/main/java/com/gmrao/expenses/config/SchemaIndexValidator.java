@@ -0,0 +1,104 @@
+package com.gmrao.expenses.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Checks at startup that the indexes the hot queries rely on exist, whatever created the schema.
+ * An index counts when its leading columns match the expected ones, so a wider index also
+ * satisfies a narrower requirement. expenses.schema.index-check picks the reaction: fail (abort
+ * startup), warn (log only) or off.
+ */
+@Slf4j
+@Component
+public class SchemaIndexValidator implements ApplicationRunner {
+
+    private record ExpectedIndex(String table, List<String> columns, String usedBy) {
+        ExpectedIndex(String table, String usedBy, String... columns) {
+            this(table, List.of(columns), usedBy);
+        }
+    }
+
+    private static final List<ExpectedIndex> EXPECTED = List.of(
+            new ExpectedIndex("expenses", "keyset listing", "user_id", "created_at", "id"),
+            new ExpectedIndex("expenses", "date search and export", "user_id", "expense_date"),
+            new ExpectedIndex("expenses", "category filter", "user_id", "category"),
+            new ExpectedIndex("expense_rollups", "analytics", "user_id", "period_start", "category"),
+            new ExpectedIndex("users", "login by email", "email"),
+            new ExpectedIndex("users", "login by username", "username"),
+            new ExpectedIndex("users", "login by phone, account recovery", "phone"),
+            new ExpectedIndex("address_details", "profile read", "user_id"),
+            new ExpectedIndex("user_photos", "photo read", "user_id", "variant"),
+            new ExpectedIndex("refresh_tokens", "refresh token lookup", "token_hash"),
+            new ExpectedIndex("refresh_tokens", "revoke on logout", "user_id"),
+            new ExpectedIndex("refresh_tokens", "token purge", "expires_at"),
+            new ExpectedIndex("blacklisted_tokens", "blacklist lookup", "token_hash"),
+            new ExpectedIndex("blacklisted_tokens", "revocation load and purge", "expires_at"),
+            new ExpectedIndex("password_reset_tokens", "reset token lookup", "token_hash"),
+            new ExpectedIndex("password_reset_tokens", "token purge", "expires_at"),
+            new ExpectedIndex("email_outbox", "outbox claim", "status", "next_attempt_at")
+    );
+
+    private final JdbcTemplate jdbc;
+    private final String mode;
+
+    public SchemaIndexValidator(JdbcTemplate jdbc, @Value("${expenses.schema.index-check:warn}") String mode) {
+        this.jdbc = jdbc;
+        this.mode = mode;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if ("off".equalsIgnoreCase(mode)) {
+            return;
+        }
+        List<String> missing = missing(loadIndexes());
+        if (missing.isEmpty()) {
+            log.info("All {} expected indexes present", EXPECTED.size());
+            return;
+        }
+        String message = "Missing indexes: " + String.join("; ", missing);
+        if ("fail".equalsIgnoreCase(mode)) {
+            throw new IllegalStateException(message + ". Run the migrations in db/migration or set expenses.schema.index-check=warn");
+        }
+        log.warn(message);
+    }
+
+    // expected indexes that no index covers by its leading columns, described for the log
+    static List<String> missing(Map<String, List<List<String>>> indexes) {
+        List<String> missing = new ArrayList<>();
+        for (ExpectedIndex expected : EXPECTED) {
+            boolean present = indexes.getOrDefault(expected.table(), List.of()).stream()
+                    .anyMatch(columns -> columns.size() >= expected.columns().size()
+                            && columns.subList(0, expected.columns().size()).equals(expected.columns()));
+            if (!present) {
+                missing.add(expected.table() + "(" + String.join(", ", expected.columns()) + ") for " + expected.usedBy());
+            }
+        }
+        return missing;
+    }
+
+    // table -> column lists of its indexes, in index order
+    private Map<String, List<List<String>>> loadIndexes() {
+        Map<String, Map<String, List<String>>> byIndex = new HashMap<>();
+        jdbc.query("""
+                SELECT table_name, index_name, column_name
+                FROM information_schema.statistics
+                WHERE table_schema = DATABASE()
+                ORDER BY table_name, index_name, seq_in_index
+                """, rs -> {
+            byIndex.computeIfAbsent(rs.getString(1).toLowerCase(Locale.ROOT), t -> new LinkedHashMap<>())
+                    .computeIfAbsent(rs.getString(2), i -> new ArrayList<>())
+                    .add(rs.getString(3).toLowerCase(Locale.ROOT));
+        });
+        Map<String, List<List<String>>> indexes = new HashMap<>();
+        byIndex.forEach((table, tableIndexes) -> indexes.put(table, new ArrayList<>(tableIndexes.values())));
+        return indexes;
+    }
+}
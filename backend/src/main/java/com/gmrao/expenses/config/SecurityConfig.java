@@ -1,7 +1,10 @@
 package com.gmrao.expenses.config;
 
+import com.gmrao.expenses.enums.RolesEnum;
 import com.gmrao.expenses.service.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -24,8 +27,12 @@ public class SecurityConfig {
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(reg -> reg
+                        // streamed exports finish on an async dispatch; the request was authorized on the way in
+                        // and the stateless token context is not carried over to that dispatch
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/expenses/**", "/api/expenses/**").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/api/admin/**").hasAuthority(RolesEnum.ADMIN.getRoleName())
                         .requestMatchers(HttpMethod.GET, "/api/admin/**").hasAnyRole("ADMIN", "USER")
                         .anyRequest().authenticated()
                 )
@@ -34,6 +41,9 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // hashing runs through PasswordHasher; changing the cost rehashes users on their next login
     @Bean
-    public PasswordEncoder passwordEncoder() { return new BCryptPasswordEncoder(); }
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-cost:10}") int cost) {
+        return new BCryptPasswordEncoder(cost);
+    }
 }
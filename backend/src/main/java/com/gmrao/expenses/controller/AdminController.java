@@ -0,0 +1,39 @@
+package com.gmrao.expenses.controller;
+
+import com.gmrao.expenses.service.ExpenseRollupService;
+import com.gmrao.expenses.service.ReferenceDataCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final ExpenseRollupService rollupService;
+    private final ReferenceDataCache referenceData;
+
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, String>> rebuildRollups() {
+        if (rollupService.rebuildAll() == null) {
+            return new ResponseEntity<>(Map.of("message", "Rollup rebuild already running"), HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(Map.of("message", "Rollup rebuild started"), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/rollups/rebuild")
+    public Map<String, Boolean> rebuildStatus() {
+        return Map.of("running", rollupService.isRebuilding());
+    }
+
+    // Re-reads countries, states and roles after the tables were edited by hand or by a migration
+    @PostMapping("/reference-data/reload")
+    public Map<String, Integer> reloadReferenceData() {
+        referenceData.reload();
+        return referenceData.counts();
+    }
+}
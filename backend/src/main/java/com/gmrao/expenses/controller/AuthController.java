@@ -2,12 +2,17 @@ package com.gmrao.expenses.controller;
 
 import com.gmrao.expenses.entity.User;
 import com.gmrao.expenses.models.*;
+import com.gmrao.expenses.service.AuthRateLimiter;
 import com.gmrao.expenses.service.AuthService;
 import com.gmrao.expenses.service.JwtService;
 import com.gmrao.expenses.service.UserService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -22,9 +27,11 @@ public class AuthController {
     private final JwtService jwtService; // we will define
     private final AuthService tokenService;
     private final UserService userService; // existing
+    private final AuthRateLimiter rateLimiter;
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest req) {
+    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest req, HttpServletRequest request) {
+        rateLimiter.check(AuthRateLimiter.Action.LOGIN, req.email(), request.getRemoteAddr());
         AuthResponse authResponse = userService.login(req);
         return new ResponseEntity<>(authResponse, HttpStatus.OK);
     }
@@ -43,9 +50,18 @@ public class AuthController {
     @GetMapping("/logout")
     public void logout(@RequestHeader("Authorization") String authHeader) {
         String accessToken = authHeader.replace("Bearer ", "");
-        Long userId = jwtService.getUserId(accessToken);
-        tokenService.revokeRefreshToken(userId);
-        tokenService.blacklistAccessToken(accessToken);
+        Claims claims = currentClaims(accessToken);
+        tokenService.revokeRefreshToken(JwtService.getUserId(claims));
+        tokenService.blacklistAccessToken(accessToken, claims);
+    }
+
+    // JwtAuthFilter already verified the token for this request; reuse its claims when present
+    private Claims currentClaims(String accessToken) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getDetails() instanceof Claims claims) {
+            return claims;
+        }
+        return jwtService.parse(accessToken);
     }
 
     @GetMapping("/check-email/{email}")
@@ -61,8 +77,9 @@ public class AuthController {
     }
 
     @PostMapping("/forgot-password")
-    public ResponseEntity<?> forgotPassword(@RequestBody Map<String, String> req) {
+    public ResponseEntity<?> forgotPassword(@RequestBody Map<String, String> req, HttpServletRequest request) {
         String email = req.get("email");
+        rateLimiter.check(AuthRateLimiter.Action.FORGOT_PASSWORD, email, request.getRemoteAddr());
         Map<String, String> response = userService.forgotPassword(email);
         return ResponseEntity.ok(response);
     }
@@ -74,7 +91,9 @@ public class AuthController {
     }
 
     @PostMapping("/recover-mail")
-    public ResponseEntity<Map<String, String>> recoverUserNameOrEmail(@RequestBody RecoverUserDetails request) {
+    public ResponseEntity<Map<String, String>> recoverUserNameOrEmail(@RequestBody RecoverUserDetails request,
+                                                                      HttpServletRequest httpRequest) {
+        rateLimiter.check(AuthRateLimiter.Action.RECOVER_MAIL, request.phoneNumber(), httpRequest.getRemoteAddr());
         Map<String, String> response = userService.recoverUserNameOrEmail(request);
         return ResponseEntity.ok(response);
     }
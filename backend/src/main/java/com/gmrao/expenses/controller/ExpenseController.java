@@ -1,35 +1,78 @@
 // src/main/java/com/gmrao/expenses/expense/ExpenseController.java
 package com.gmrao.expenses.controller;
 
-import com.gmrao.expenses.entity.User;
+import com.gmrao.expenses.enums.ExportFormat;
 import com.gmrao.expenses.models.*;
+import com.gmrao.expenses.service.AnalyticsCache;
+import com.gmrao.expenses.service.ExpenseBatchService;
+import com.gmrao.expenses.service.ExpenseImportService;
 import com.gmrao.expenses.service.ExpenseService;
+import com.gmrao.expenses.service.ExpenseVersions;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/expenses")
 @RequiredArgsConstructor
 public class ExpenseController {
     private final ExpenseService service;
+    private final ExpenseBatchService batchService;
+    private final ExpenseImportService importService;
+    private final ExpenseVersions versions;
+
+    @Value("${expenses.analytics-cache.serialized:false}")
+    private boolean serializedAnalytics;
 
     // TODO: Replace with actual JWT extraction
     private Long getCurrentUserId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        return ((User) auth.getPrincipal()).getId();
+        return ((AuthUser) auth.getPrincipal()).id();
     }
 
     @GetMapping("/list")
-    public ResponseEntity<List<ExpenseResponse>> list() {
-        return new ResponseEntity<>(service.list(getCurrentUserId()), HttpStatus.OK);
+    public ResponseEntity<List<ExpenseResponse>> list(WebRequest request) {
+        Long userId = getCurrentUserId();
+        return conditional(request, userId, () -> service.list(userId));
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<PageResponse<ExpenseResponse>> listPage(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(defaultValue = "20") int size,
+                                                                  WebRequest request) {
+        Long userId = getCurrentUserId();
+        return conditional(request, userId, () -> service.listPage(userId, cursor, size));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<PageResponse<ExpenseResponse>> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(service.search(getCurrentUserId(), q, category, from, to, minAmount, maxAmount, page, size));
     }
 
     @PostMapping("/add")
@@ -37,6 +80,29 @@ public class ExpenseController {
         return service.create(getCurrentUserId(), req);
     }
 
+    @PostMapping("/batch")
+    public List<BatchItemResult> batch(@RequestBody @Valid BatchRequest req) {
+        return batchService.apply(getCurrentUserId(), req.operations());
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<ImportJobStatus> importCsv(@RequestParam("file") MultipartFile file) throws IOException {
+        ImportJobStatus status = importService.submit(getCurrentUserId(), file);
+        if (status == null) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return new ResponseEntity<>(status, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportJobStatus> importStatus(@PathVariable String jobId) {
+        ImportJobStatus status = importService.status(getCurrentUserId(), jobId);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
+    }
+
     @PutMapping("/{id}")
     public ExpenseResponse update(@PathVariable Long id, @RequestBody @Valid ExpenseRequest req) {
         return service.update(getCurrentUserId(), id, req);
@@ -49,24 +115,58 @@ public class ExpenseController {
 
     @GetMapping("/{id}")
     public ResponseEntity<ExpenseResponse> fetch(@PathVariable Long id) {
-        return new ResponseEntity<>(service.fetch(id), HttpStatus.OK);
+        return new ResponseEntity<>(service.fetch(getCurrentUserId(), id), HttpStatus.OK);
     }
 
     @GetMapping("/monthly")
-    public List<Map<String, Object>> getMonthlyTotals() {
-        List<Map<String, Object>> mapList = service.getMonthlyTotals(getCurrentUserId());
-        System.out.println("Map List :: " + mapList.size());
-        return mapList;
+    public ResponseEntity<?> getMonthlyTotals(WebRequest request) {
+        Long userId = getCurrentUserId();
+        return analytics(request, userId, AnalyticsCache.View.MONTHLY, () -> service.getMonthlyTotals(userId));
     }
 
     @GetMapping("/categories")
-    public List<Map<String, Object>> getCategoryTotals() {
-        return service.getCategoryTotals(getCurrentUserId());
+    public ResponseEntity<?> getCategoryTotals(WebRequest request) {
+        Long userId = getCurrentUserId();
+        return analytics(request, userId, AnalyticsCache.View.CATEGORIES, () -> service.getCategoryTotals(userId));
     }
 
     @GetMapping("/summary")
-    public Map<String, Object> getSummary() {
-        return service.getSummary(getCurrentUserId());
+    public ResponseEntity<?> getSummary(WebRequest request) {
+        Long userId = getCurrentUserId();
+        return analytics(request, userId, AnalyticsCache.View.SUMMARY, () -> service.getSummary(userId));
+    }
+
+    @GetMapping("/dashboard")
+    public ResponseEntity<?> getDashboard(WebRequest request) {
+        Long userId = getCurrentUserId();
+        return analytics(request, userId, AnalyticsCache.View.DASHBOARD, () -> service.getDashboard(userId));
+    }
+
+    // Serves the cached JSON bytes as-is when enabled, skipping Jackson on every hit
+    private ResponseEntity<?> analytics(WebRequest request, Long userId, AnalyticsCache.View view, Supplier<?> loader) {
+        if (serializedAnalytics) {
+            return conditional(request, userId, MediaType.APPLICATION_JSON, () -> service.getAnalyticsJson(userId, view));
+        }
+        return conditional(request, userId, loader);
+    }
+
+    private <T> ResponseEntity<T> conditional(WebRequest request, Long userId, Supplier<T> body) {
+        return conditional(request, userId, null, body);
+    }
+
+    // Answers 304 from the in-memory data version alone, before any query runs
+    private <T> ResponseEntity<T> conditional(WebRequest request, Long userId, MediaType contentType, Supplier<T> body) {
+        String etag = versions.etag(userId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate());
+        if (contentType != null) {
+            builder.contentType(contentType);
+        }
+        return builder.body(body.get());
     }
 
     @GetMapping(value = "/export")
@@ -75,4 +175,18 @@ public class ExpenseController {
         return ResponseEntity.ok(expenses);
     }
 
+    @GetMapping(value = "/export", params = "format")
+    public ResponseEntity<StreamingResponseBody> exportStream(@RequestParam String format) {
+        ExportFormat exportFormat = ExportFormat.getFormat(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Long userId = getCurrentUserId();
+        StreamingResponseBody body = out -> service.streamExport(userId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"expenses." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
 }
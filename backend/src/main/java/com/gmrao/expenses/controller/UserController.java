@@ -1,18 +1,28 @@
 package com.gmrao.expenses.controller;
 
-import com.gmrao.expenses.entity.User;
+import com.gmrao.expenses.enums.PhotoVariant;
 import com.gmrao.expenses.models.*;
+import com.gmrao.expenses.service.ReferenceDataCache;
 import com.gmrao.expenses.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/user")
@@ -20,10 +30,14 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final ReferenceDataCache referenceData;
+
+    @Value("${expenses.photo.max-upload-size:10MB}")
+    private DataSize maxPhotoSize;
 
     private Long getCurrentUserId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        return ((User) auth.getPrincipal()).getId();
+        return ((AuthUser) auth.getPrincipal()).id();
     }
 
     @PostMapping("/personal")
@@ -67,8 +81,50 @@ public class UserController {
 
     @PostMapping("/photo")
     public ResponseEntity<String> uploadPhoto(@RequestParam("file") MultipartFile file) throws Exception {
-        userService.uploadPhoto(getCurrentUserId(), file);
-        return new ResponseEntity<>("Photo uploaded successfully", HttpStatus.OK);
+        if (file.getSize() > maxPhotoSize.toBytes()) {
+            return new ResponseEntity<>("Photo exceeds " + maxPhotoSize.toMegabytes() + "MB", HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        if (file.getContentType() == null || !file.getContentType().startsWith("image/")) {
+            return new ResponseEntity<>("Only image uploads are accepted", HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        }
+        if (!userService.uploadPhoto(getCurrentUserId(), file)) {
+            return new ResponseEntity<>("Photo processing is busy, try again shortly", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        // renditions are generated in the background and replace the current photo when ready
+        return new ResponseEntity<>("Photo accepted for processing", HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/photo")
+    public ResponseEntity<Resource> getPhoto(@RequestParam(value = "size", defaultValue = "profile") String size,
+                                             @RequestParam(value = "v", required = false) String version,
+                                             WebRequest request) {
+        PhotoVariant variant = PhotoVariant.getVariant(size);
+        if (variant == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Long userId = getCurrentUserId();
+        PhotoInfo info = userService.getPhotoInfo(userId, variant);
+        if (info == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = "\"" + info.etag() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        byte[] content = userService.getPhotoContent(userId, variant);
+        if (content == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // versioned URLs never change content, so they may be cached for good
+        CacheControl cacheControl = info.isVersion(version)
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable()
+                : CacheControl.noCache().cachePrivate();
+        // Spring answers Range requests on Resource bodies with 206 partial content
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(info.contentType()))
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(new ByteArrayResource(content));
     }
 
     @DeleteMapping("/photo")
@@ -78,15 +134,25 @@ public class UserController {
     }
 
     @GetMapping("/states/{id}")
-    public ResponseEntity<List<States>> stateList(@PathVariable("id") Long countryId) {
-        List<States> statesList = userService.getStateList(countryId);
-        return ResponseEntity.ok(statesList);
+    public ResponseEntity<List<States>> stateList(@PathVariable("id") Long countryId, WebRequest request) {
+        return cachedReferenceData(request, () -> userService.getStateList(countryId));
     }
 
     @GetMapping("/countries")
-    public ResponseEntity<List<Countries>> countryList() {
-        List<Countries> statesList = userService.getCountryList();
-        return ResponseEntity.ok(statesList);
+    public ResponseEntity<List<Countries>> countryList(WebRequest request) {
+        return cachedReferenceData(request, userService::getCountryList);
+    }
+
+    // Served from ReferenceDataCache; clients may reuse it for a day and then revalidate by ETag
+    private <T> ResponseEntity<T> cachedReferenceData(WebRequest request, Supplier<T> body) {
+        String etag = referenceData.etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePrivate())
+                .body(body.get());
     }
 
 }
@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "address_details")
+@Table(name = "address_details", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_address_details_user", columnNames = {"user_id"})
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,11 +21,13 @@ public class AddressDetails {
     private String addressLine2;
 
     // Contact details
-    private String state;
+    @Column(name = "state_id")
+    private Long stateId;
     @Column(name = "address_line_1")
     private String addressLine1;
     private String city;
     private Long userId;
     private String pincode;
-    private String country;
+    @Column(name = "country_id")
+    private Long countryId;
 }
@@ -5,7 +5,11 @@ import lombok.*;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "blacklisted_tokens")
+@Table(name = "blacklisted_tokens", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_blacklisted_tokens_hash", columnNames = {"token_hash"})
+}, indexes = {
+        @Index(name = "idx_blacklisted_tokens_expires", columnList = "expires_at")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class BlacklistedToken {
 
@@ -13,8 +17,12 @@ public class BlacklistedToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(columnDefinition = "TEXT", nullable = false)
-    private String token;
+    // SHA-256 of the access token, hex encoded
+    @Column(name = "token_hash", columnDefinition = "CHAR(64)", nullable = false)
+    private String tokenHash;
+
+    @Column(length = 36)
+    private String jti;
 
     @Column(name = "user_id", nullable = false)
     private Long userId;
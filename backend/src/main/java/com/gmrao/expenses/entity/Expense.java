@@ -9,12 +9,20 @@ import java.time.LocalDate;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "expenses")
+@Table(name = "expenses", indexes = {
+        @Index(name = "idx_expenses_user_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_expenses_user_date", columnList = "user_id, expense_date"),
+        @Index(name = "idx_expenses_user_category", columnList = "user_id, category")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 public class Expense {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled table ids (50 per round trip) so Hibernate can batch inserts; IDENTITY disables batching
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "expense_ids")
+    @TableGenerator(name = "expense_ids", table = "id_generators", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "expenses", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -36,6 +44,18 @@ public class Expense {
     @Column(nullable = false)
     private OffsetDateTime createdAt;
 
+    public Expense copy() {
+        Expense e = new Expense();
+        e.setId(id);
+        e.setUserId(userId);
+        e.setTitle(title);
+        e.setCategory(category);
+        e.setAmount(amount);
+        e.setDate(date);
+        e.setCreatedAt(createdAt);
+        return e;
+    }
+
     @PrePersist
     public void prePersist() {
         if (createdAt == null) createdAt = OffsetDateTime.now();
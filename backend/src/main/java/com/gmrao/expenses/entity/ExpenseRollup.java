@@ -0,0 +1,42 @@
+package com.gmrao.expenses.entity;
+
+import com.gmrao.expenses.enums.Category;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated spend per (user, month, category), maintained by ExpenseService writes.
+ */
+@Entity
+@Table(name = "expense_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_rollup_user_period_category", columnNames = {"user_id", "period_start", "category"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ExpenseRollup {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // first day of the month
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Category category;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal total;
+
+    @Column(name = "expense_count", nullable = false)
+    private long expenseCount;
+}
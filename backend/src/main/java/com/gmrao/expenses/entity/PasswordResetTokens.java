@@ -9,7 +9,11 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "password_reset_tokens")
+@Table(name = "password_reset_tokens", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_password_reset_tokens_hash", columnNames = {"token_hash"})
+}, indexes = {
+        @Index(name = "idx_password_reset_tokens_expires", columnList = "expires_at")
+})
 @Setter
 @Getter
 @AllArgsConstructor
@@ -19,7 +23,9 @@ public class PasswordResetTokens {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String email;
-    private String token;
+    // SHA-256 of the mailed token, hex encoded
+    @Column(name = "token_hash", columnDefinition = "CHAR(64)", nullable = false)
+    private String tokenHash;
     private LocalDateTime expiresAt;
     private LocalDateTime createdAt;
 }
@@ -5,7 +5,13 @@ import lombok.*;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_refresh_tokens_hash", columnNames = {"token_hash"})
+}, indexes = {
+        @Index(name = "idx_refresh_tokens_user", columnList = "user_id"),
+        @Index(name = "idx_refresh_tokens_expires", columnList = "expires_at"),
+        @Index(name = "idx_refresh_tokens_revoked", columnList = "revoked")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class RefreshToken {
 
@@ -16,8 +22,9 @@ public class RefreshToken {
     @Column(name="user_id", nullable = false)
     private Long userId;
 
-    @Column(columnDefinition = "TEXT", nullable = false, unique = true)
-    private String token;
+    // SHA-256 of the token, hex encoded; only the client ever holds the token itself
+    @Column(name = "token_hash", columnDefinition = "CHAR(64)", nullable = false)
+    private String tokenHash;
 
     @Column(nullable = false)
     private OffsetDateTime issuedAt;
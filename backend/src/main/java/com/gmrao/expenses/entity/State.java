@@ -6,7 +6,9 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-@Table(name = "states")
+@Table(name = "states", indexes = {
+        @Index(name = "idx_states_country", columnList = "country_id")
+})
 @Entity
 @Setter
 @Getter
@@ -9,7 +9,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_email", columnList = "email"),
+        @Index(name = "idx_users_username", columnList = "username"),
+        @Index(name = "idx_users_phone", columnList = "phone")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -29,9 +33,6 @@ public class User {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] photo;
-    private String photoType;
     private String phone;
     private String gender;
     private LocalDate dateOfBirth;
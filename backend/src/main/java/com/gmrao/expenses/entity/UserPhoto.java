@@ -0,0 +1,47 @@
+package com.gmrao.expenses.entity;
+
+import com.gmrao.expenses.enums.PhotoVariant;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_photos", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_photos_user_variant", columnNames = {"user_id", "variant"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserPhoto {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // one row per rendition; the uploaded original is not kept
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private PhotoVariant variant;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    // SHA-256 of the content, hex encoded; doubles as the HTTP ETag
+    @Column(nullable = false, length = 64)
+    private String etag;
+
+    // read only through the content query in UserPhotoRepository, never with the metadata
+    @Column(columnDefinition = "LONGBLOB", nullable = false)
+    private byte[] content;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
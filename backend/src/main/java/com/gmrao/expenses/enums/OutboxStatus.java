@@ -0,0 +1,5 @@
+package com.gmrao.expenses.enums;
+
+public enum OutboxStatus {
+    PENDING, SENT, FAILED
+}
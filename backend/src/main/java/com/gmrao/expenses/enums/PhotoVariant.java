@@ -0,0 +1,24 @@
+package com.gmrao.expenses.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum PhotoVariant {
+    // 40px navbar avatar, rendered at up to 2x for high-density screens
+    AVATAR(96),
+    PROFILE(512);
+
+    // longest edge in pixels; smaller images are re-encoded but never upscaled
+    private final int maxEdge;
+
+    public static PhotoVariant getVariant(String variant) {
+        for (PhotoVariant value : values()) {
+            if (value.name().equalsIgnoreCase(variant)) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
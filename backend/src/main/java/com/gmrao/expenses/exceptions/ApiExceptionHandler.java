@@ -0,0 +1,39 @@
+package com.gmrao.expenses.exceptions;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    // Answered here rather than through /error so the status survives the security chain
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ApiError> passwordHashingUnavailable(PasswordHashingUnavailableException e,
+                                                               HttpServletRequest request) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiError(e.getMessage(), status.value(), LocalDateTime.now(), request.getRequestURI()));
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiError> tooManyRequests(TooManyRequestsException e, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ApiError(e.getMessage(), status.value(), LocalDateTime.now(), request.getRequestURI()));
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiError> badRequest(BadRequestException e, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status)
+                .body(new ApiError(e.getMessage(), status.value(), LocalDateTime.now(), request.getRequestURI()));
+    }
+}
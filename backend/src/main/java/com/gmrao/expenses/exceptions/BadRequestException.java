@@ -0,0 +1,9 @@
+package com.gmrao.expenses.exceptions;
+
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String msg) {
+        super(msg);
+    }
+
+}
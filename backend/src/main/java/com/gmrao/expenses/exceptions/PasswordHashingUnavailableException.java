@@ -0,0 +1,9 @@
+package com.gmrao.expenses.exceptions;
+
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    public PasswordHashingUnavailableException(String msg) {
+        super(msg);
+    }
+
+}
@@ -0,0 +1,7 @@
+package com.gmrao.expenses.models;
+
+/**
+ * Authenticated principal built from verified token claims; no users row is loaded per request.
+ */
+public record AuthUser(Long id, String email, String role) {
+}
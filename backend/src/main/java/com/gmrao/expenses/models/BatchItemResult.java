@@ -0,0 +1,14 @@
+package com.gmrao.expenses.models;
+
+import com.gmrao.expenses.enums.BatchAction;
+
+public record BatchItemResult(int index, BatchAction action, Long id, boolean success, String error) {
+
+    public static BatchItemResult ok(int index, BatchAction action, Long id) {
+        return new BatchItemResult(index, action, id, true, null);
+    }
+
+    public static BatchItemResult failed(int index, BatchAction action, Long id, String error) {
+        return new BatchItemResult(index, action, id, false, error);
+    }
+}
@@ -0,0 +1,7 @@
+package com.gmrao.expenses.models;
+
+import com.gmrao.expenses.enums.BatchAction;
+import jakarta.validation.constraints.NotNull;
+
+public record BatchOperation(@NotNull BatchAction action, Long id, ExpenseRequest expense) {
+}
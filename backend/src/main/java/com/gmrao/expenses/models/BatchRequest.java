@@ -0,0 +1,10 @@
+package com.gmrao.expenses.models;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchRequest(@NotEmpty @Size(max = 5000) List<@Valid BatchOperation> operations) {
+}
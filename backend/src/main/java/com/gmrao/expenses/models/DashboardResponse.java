@@ -0,0 +1,13 @@
+package com.gmrao.expenses.models;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record DashboardResponse(
+        List<MonthlyTotal> monthly,
+        List<CategoryTotal> categories,
+        BigDecimal totalSpent,
+        CategoryTotal highestCategory,
+        BigDecimal avgMonthly
+) {
+}
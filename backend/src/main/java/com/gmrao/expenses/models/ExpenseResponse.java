@@ -1,12 +1,20 @@
 package com.gmrao.expenses.models;
 
+import com.gmrao.expenses.entity.Expense;
 import com.gmrao.expenses.enums.Category;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.OffsetDateTime;
 
 public record ExpenseResponse(
         Long id, String title, String category, BigDecimal amount, LocalDate date
 ) {
+    // used by JPQL constructor expressions, which hand over the enum column as-is
+    public ExpenseResponse(Long id, String title, Category category, BigDecimal amount, LocalDate date) {
+        this(id, title, category.getCategory(), amount, date);
+    }
+
+    public static ExpenseResponse from(Expense e) {
+        return new ExpenseResponse(e.getId(), e.getTitle(), e.getCategory().getCategory(), e.getAmount(), e.getDate());
+    }
 }
@@ -1,5 +1,6 @@
 package com.gmrao.expenses.models;
 
+import com.gmrao.expenses.enums.Category;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -17,4 +18,9 @@ public class ExportDetails {
     private String category;
     private BigDecimal amount;
     private LocalDate date;
+
+    // used by JPQL constructor expressions, which hand over the enum column as-is
+    public ExportDetails(String title, Category category, BigDecimal amount, LocalDate date) {
+        this(title, category.getCategory(), amount, date);
+    }
 }
@@ -0,0 +1,16 @@
+package com.gmrao.expenses.models;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public record ImportJobStatus(
+        String jobId,
+        String state,
+        long rowsRead,
+        long rowsImported,
+        long rowsFailed,
+        List<ImportRowError> errors,
+        OffsetDateTime startedAt,
+        OffsetDateTime finishedAt
+) {
+}
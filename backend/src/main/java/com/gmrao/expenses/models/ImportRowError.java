@@ -0,0 +1,4 @@
+package com.gmrao.expenses.models;
+
+public record ImportRowError(long row, String error) {
+}
@@ -0,0 +1,6 @@
+package com.gmrao.expenses.models;
+
+import java.math.BigDecimal;
+
+public record MonthlyTotal(String month, BigDecimal total) {
+}
@@ -2,11 +2,16 @@ package com.gmrao.expenses.models;
 
 import java.util.List;
 
+/**
+ * One page of a listing. The keyset listing only counts on its first page, so totalElements and
+ * totalPages are null on the pages reached through a cursor.
+ */
 public record PageResponse<E>(
-        List<ExpenseResponse> items,
+        List<E> items,
         int page,
         int size,
-        long totalElements,
-        int totalPages
+        Long totalElements,
+        Integer totalPages,
+        String nextCursor
 ) {
 }
@@ -0,0 +1,28 @@
+package com.gmrao.expenses.models;
+
+import com.gmrao.expenses.enums.PhotoVariant;
+
+public record PhotoInfo(PhotoVariant variant, String contentType, long sizeBytes, String etag) {
+
+    private static final int VERSION_LENGTH = 16;
+
+    public String url() {
+        return url(variant, etag);
+    }
+
+    public static String url(PhotoVariant variant, String etag) {
+        if (etag == null) {
+            return null;
+        }
+        return "/api/user/photo?size=" + variant.name().toLowerCase() + "&v=" + version(etag);
+    }
+
+    // true only for the exact v= value url() hands out for this content
+    public boolean isVersion(String v) {
+        return v != null && etag != null && v.equals(version(etag));
+    }
+
+    private static String version(String etag) {
+        return etag.substring(0, Math.min(VERSION_LENGTH, etag.length()));
+    }
+}
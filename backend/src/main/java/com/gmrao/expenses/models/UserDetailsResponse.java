@@ -23,8 +23,8 @@ public class UserDetailsResponse {
     private String city;
     private String pincode;
 
-    private int[] photo;      // RAW BYTES (UI will convert to Blob)
-    private String photoType;  // MIME type like image/jpeg
+    private String photoUrl;  // GET /api/user/photo?size=profile, versioned by content hash
+    private String avatarUrl; // GET /api/user/photo?size=avatar
 
     private Long countryId;
     private Long stateId;
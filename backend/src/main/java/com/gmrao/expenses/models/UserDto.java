@@ -10,6 +10,5 @@ public record UserDto(
         String phone,
         String gender,
         LocalDate dateOfBirth,
-        int[] photo,
-        String photoType
+        String photoUrl
 ) {}
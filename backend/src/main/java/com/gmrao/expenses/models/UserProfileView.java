@@ -0,0 +1,21 @@
+package com.gmrao.expenses.models;
+
+import java.time.LocalDate;
+
+// One row of UserRepository.findProfileById: user, address and photo versions, never the photo bytes
+public record UserProfileView(
+        String name,
+        String username,
+        String email,
+        LocalDate dateOfBirth,
+        String gender,
+        String phone,
+        String addressLine1,
+        String addressLine2,
+        String city,
+        String pincode,
+        Long countryId,
+        Long stateId,
+        String profilePhotoEtag,
+        String avatarPhotoEtag
+) {}
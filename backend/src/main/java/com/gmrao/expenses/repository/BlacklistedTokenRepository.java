@@ -2,7 +2,19 @@ package com.gmrao.expenses.repository;
 
 import com.gmrao.expenses.entity.BlacklistedToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.OffsetDateTime;
+import java.util.List;
 
 public interface BlacklistedTokenRepository extends JpaRepository<BlacklistedToken, Long> {
-    boolean existsByToken(String token);
+    boolean existsByTokenHash(String tokenHash);
+
+    List<BlacklistedToken> findByExpiresAtAfter(OffsetDateTime now);
+
+    // An expired access token is rejected by its own exp claim, so its blacklist row is dead weight
+    @Modifying
+    @Query(value = "DELETE FROM blacklisted_tokens WHERE expires_at < :now ORDER BY expires_at LIMIT :limit", nativeQuery = true)
+    int deleteExpired(OffsetDateTime now, int limit);
 }
@@ -0,0 +1,38 @@
+package com.gmrao.expenses.repository;
+
+import com.gmrao.expenses.entity.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Locks due rows for the calling transaction; rows another worker already holds are skipped
+    @Query(value = """
+        SELECT * FROM email_outbox
+        WHERE status = 'PENDING' AND next_attempt_at <= :now
+        ORDER BY next_attempt_at
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<EmailOutbox> lockDue(LocalDateTime now, int limit);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox o SET o.status = com.gmrao.expenses.enums.OutboxStatus.SENT, o.sentAt = :now, o.lastError = null, o.body = '' WHERE o.id IN :ids")
+    void markSent(List<Long> ids, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox o SET o.nextAttemptAt = :nextAttemptAt, o.lastError = :error WHERE o.id = :id")
+    void reschedule(Long id, LocalDateTime nextAttemptAt, String error);
+
+    @Modifying
+    @Query("UPDATE EmailOutbox o SET o.status = com.gmrao.expenses.enums.OutboxStatus.FAILED, o.lastError = :error, o.body = '' WHERE o.id = :id")
+    void markFailed(Long id, String error);
+
+    @Modifying
+    @Query(value = "DELETE FROM email_outbox WHERE status = 'SENT' AND sent_at < :before LIMIT :limit", nativeQuery = true)
+    int deleteSent(LocalDateTime before, int limit);
+}
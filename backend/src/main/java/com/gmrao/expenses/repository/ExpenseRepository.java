@@ -1,71 +1,70 @@
 package com.gmrao.expenses.repository;
 
 import com.gmrao.expenses.entity.Expense;
+import com.gmrao.expenses.models.ExpenseResponse;
+import com.gmrao.expenses.models.ExportDetails;
+import org.springframework.data.domain.Limit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.*;
 
+import java.time.OffsetDateTime;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpecificationExecutor<Expense> {
 
     List<Expense> findByUserId(Long userId);
 
-    // Monthly totals (for Pie Chart)
-    @Query(value = """
-        SELECT DATE_FORMAT(e.expense_date, '%b') AS month,
-               SUM(e.amount) AS total
-        FROM expenses e
-        WHERE e.user_id = :userId
-        GROUP BY DATE_FORMAT(e.expense_date, '%b'), MONTH(e.expense_date)
-        ORDER BY MONTH(e.expense_date)
-    """, nativeQuery = true)
-    List<Map<String, Object>> getMonthlyTotals(Long userId);
+    @Query("""
+        SELECT new com.gmrao.expenses.models.ExpenseResponse(e.id, e.title, e.category, e.amount, e.date)
+        FROM Expense e
+        WHERE e.userId = :userId
+        ORDER BY e.createdAt DESC, e.id DESC
+    """)
+    List<ExpenseResponse> findResponsesByUserId(Long userId);
 
+    @Query("""
+        SELECT new com.gmrao.expenses.models.ExpenseResponse(e.id, e.title, e.category, e.amount, e.date)
+        FROM Expense e
+        WHERE e.id = :id AND e.userId = :userId
+    """)
+    Optional<ExpenseResponse> findResponseById(Long id, Long userId);
 
-    // Category totals (for Line Chart)
-    @Query(value = """
-        SELECT e.category AS category,
-               SUM(e.amount) AS amount
-        FROM expenses e
-        WHERE e.user_id = :userId
-        GROUP BY e.category
-        ORDER BY amount DESC
-    """, nativeQuery = true)
-    List<Map<String, Object>> getCategoryTotals(Long userId);
+    @Query("""
+        SELECT new com.gmrao.expenses.models.ExportDetails(e.title, e.category, e.amount, e.date)
+        FROM Expense e
+        WHERE e.userId = :userId
+        ORDER BY e.date, e.id
+    """)
+    List<ExportDetails> findExportDetailsByUserId(Long userId);
 
+    long countByUserId(Long userId);
 
-    // Total spent (Summary Card 1)
-    @Query(value = """
-        SELECT SUM(e.amount)
-        FROM expenses e
-        WHERE e.user_id = :userId
-    """, nativeQuery = true)
-    Double totalSpent(Long userId);
+    @Query("SELECT DISTINCT e.userId FROM Expense e")
+    List<Long> findDistinctUserIds();
 
+    // Keyset pagination: first page, newest first
+    List<Expense> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Limit limit);
 
-    // Highest spent category (Summary Card 2)
-    @Query(value = """
-        SELECT e.category AS category,
-               SUM(e.amount) AS total
-        FROM expenses e
-        WHERE e.user_id = :userId
-        GROUP BY e.category
-        ORDER BY total DESC
-        LIMIT 1
-    """, nativeQuery = true)
-    Map<String, Object> highestCategory(Long userId);
+    // Keyset pagination: rows strictly after the (createdAt, id) of the previous page
+    @Query("""
+        SELECT e FROM Expense e
+        WHERE e.userId = :userId
+          AND (e.createdAt < :createdAt OR (e.createdAt = :createdAt AND e.id < :id))
+        ORDER BY e.createdAt DESC, e.id DESC
+    """)
+    List<Expense> findPageAfter(Long userId, OffsetDateTime createdAt, Long id, Limit limit);
 
-
-    // Average monthly spend (Summary Card 3)
-    @Query(value = """
-        SELECT AVG(month_totals.month_total)
-        FROM (
-            SELECT SUM(e.amount) AS month_total
-            FROM expenses e
-            WHERE e.user_id = :userId
-            GROUP BY DATE_FORMAT(e.expense_date, '%Y-%m')
-        ) AS month_totals
-    """, nativeQuery = true)
-    Double avgMonthly(Long userId);
+    // Forward-only cursor for exports; MySQL streams row by row when fetch size is Integer.MIN_VALUE
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("""
+        SELECT new com.gmrao.expenses.models.ExportDetails(e.title, e.category, e.amount, e.date)
+        FROM Expense e
+        WHERE e.userId = :userId
+        ORDER BY e.date, e.id
+    """)
+    Stream<ExportDetails> streamExportDetailsByUserId(Long userId);
 
 }
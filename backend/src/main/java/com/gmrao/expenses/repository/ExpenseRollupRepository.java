@@ -0,0 +1,110 @@
+package com.gmrao.expenses.repository;
+
+import com.gmrao.expenses.entity.ExpenseRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface ExpenseRollupRepository extends JpaRepository<ExpenseRollup, Long> {
+
+    List<ExpenseRollup> findByUserId(Long userId);
+
+    @Query("SELECT DISTINCT r.userId FROM ExpenseRollup r")
+    List<Long> findDistinctUserIds();
+
+    // Adds a (possibly negative) delta to one rollup bucket, creating it on first use
+    @Modifying
+    @Query(value = """
+        INSERT INTO expense_rollups (user_id, period_start, category, total, expense_count)
+        VALUES (:userId, :periodStart, :category, :amount, :count)
+        ON DUPLICATE KEY UPDATE total = total + VALUES(total),
+                                expense_count = expense_count + VALUES(expense_count)
+    """, nativeQuery = true)
+    void applyDelta(Long userId, LocalDate periodStart, String category, BigDecimal amount, long count);
+
+    // Drops buckets whose last expense was removed, so averages only count months with spend
+    @Modifying
+    @Query(value = """
+        DELETE FROM expense_rollups
+        WHERE user_id = :userId AND period_start = :periodStart AND category = :category AND expense_count <= 0
+    """, nativeQuery = true)
+    void deleteEmpty(Long userId, LocalDate periodStart, String category);
+
+    @Modifying
+    @Query(value = "DELETE FROM expense_rollups WHERE user_id = :userId", nativeQuery = true)
+    void deleteByUser(Long userId);
+
+    // Recomputes every bucket of one user from the raw expenses table
+    @Modifying
+    @Query(value = """
+        INSERT INTO expense_rollups (user_id, period_start, category, total, expense_count)
+        SELECT e.user_id,
+               DATE_FORMAT(e.expense_date, '%Y-%m-01'),
+               e.category,
+               SUM(e.amount),
+               COUNT(*)
+        FROM expenses e
+        WHERE e.user_id = :userId
+        GROUP BY e.user_id, DATE_FORMAT(e.expense_date, '%Y-%m-01'), e.category
+    """, nativeQuery = true)
+    void rebuildForUser(Long userId);
+
+    // Monthly totals (for Pie Chart)
+    @Query(value = """
+        SELECT DATE_FORMAT(r.period_start, '%b') AS month,
+               SUM(r.total) AS total
+        FROM expense_rollups r
+        WHERE r.user_id = :userId
+        GROUP BY DATE_FORMAT(r.period_start, '%b'), MONTH(r.period_start)
+        ORDER BY MONTH(r.period_start)
+    """, nativeQuery = true)
+    List<Map<String, Object>> getMonthlyTotals(Long userId);
+
+    // Category totals (for Line Chart)
+    @Query(value = """
+        SELECT r.category AS category,
+               SUM(r.total) AS amount
+        FROM expense_rollups r
+        WHERE r.user_id = :userId
+        GROUP BY r.category
+        ORDER BY amount DESC
+    """, nativeQuery = true)
+    List<Map<String, Object>> getCategoryTotals(Long userId);
+
+    // Total spent (Summary Card 1)
+    @Query(value = """
+        SELECT SUM(r.total)
+        FROM expense_rollups r
+        WHERE r.user_id = :userId
+    """, nativeQuery = true)
+    Double totalSpent(Long userId);
+
+    // Highest spent category (Summary Card 2)
+    @Query(value = """
+        SELECT r.category AS category,
+               SUM(r.total) AS total
+        FROM expense_rollups r
+        WHERE r.user_id = :userId
+        GROUP BY r.category
+        ORDER BY total DESC
+        LIMIT 1
+    """, nativeQuery = true)
+    Map<String, Object> highestCategory(Long userId);
+
+    // Average monthly spend (Summary Card 3)
+    @Query(value = """
+        SELECT AVG(month_totals.month_total)
+        FROM (
+            SELECT SUM(r.total) AS month_total
+            FROM expense_rollups r
+            WHERE r.user_id = :userId
+            GROUP BY r.period_start
+        ) AS month_totals
+    """, nativeQuery = true)
+    Double avgMonthly(Long userId);
+}
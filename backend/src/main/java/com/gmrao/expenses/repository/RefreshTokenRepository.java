@@ -2,12 +2,24 @@ package com.gmrao.expenses.repository;
 
 import com.gmrao.expenses.entity.RefreshToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     Optional<RefreshToken> findByUserId(Long userId);
     List<RefreshToken> findByUserIdAndRevoked(Long userId, boolean revoked);
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Purge helpers: each call removes at most :limit rows, walking idx_refresh_tokens_expires / _revoked
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE expires_at < :now ORDER BY expires_at LIMIT :limit", nativeQuery = true)
+    int deleteExpired(OffsetDateTime now, int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE revoked = true LIMIT :limit", nativeQuery = true)
+    int deleteRevoked(int limit);
 }
@@ -2,11 +2,18 @@ package com.gmrao.expenses.repository;
 
 import com.gmrao.expenses.entity.PasswordResetTokens;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface ResetPasswordTokenRepository extends JpaRepository<PasswordResetTokens, Long> {
-    Optional<PasswordResetTokens> findByToken(String token);
+    Optional<PasswordResetTokens> findByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query(value = "DELETE FROM password_reset_tokens WHERE expires_at < :now ORDER BY expires_at LIMIT :limit", nativeQuery = true)
+    int deleteExpired(LocalDateTime now, int limit);
 }
@@ -0,0 +1,29 @@
+package com.gmrao.expenses.repository;
+
+import com.gmrao.expenses.entity.UserPhoto;
+import com.gmrao.expenses.enums.PhotoVariant;
+import com.gmrao.expenses.models.PhotoInfo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserPhotoRepository extends JpaRepository<UserPhoto, Long> {
+
+    List<UserPhoto> findByUserId(Long userId);
+
+    @Query("select new com.gmrao.expenses.models.PhotoInfo(p.variant, p.contentType, p.sizeBytes, p.etag) from UserPhoto p where p.userId = :userId and p.variant = :variant")
+    Optional<PhotoInfo> findInfo(@Param("userId") Long userId, @Param("variant") PhotoVariant variant);
+
+    @Query("select p.content from UserPhoto p where p.userId = :userId and p.variant = :variant")
+    Optional<byte[]> findContent(@Param("userId") Long userId, @Param("variant") PhotoVariant variant);
+
+    @Modifying
+    @Query("delete from UserPhoto p where p.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
@@ -1,6 +1,8 @@
 package com.gmrao.expenses.repository;
 
 import com.gmrao.expenses.entity.User;
+import com.gmrao.expenses.models.AuthUser;
+import com.gmrao.expenses.models.UserProfileView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -22,4 +24,25 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query(value = "select name from users where id = :id", nativeQuery = true)
     String findNameById(@Param("id") Long id);
+
+    // row lock that orders photo stores against photo deletes for one user
+    @Query(value = "select id from users where id = :id for update", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+
+    @Query("select new com.gmrao.expenses.models.AuthUser(u.id, u.email, r.name) from User u join u.role r where u.id = :id")
+    Optional<AuthUser> findAuthUserById(@Param("id") Long id);
+
+    // Profile screen in one read: primary key on users, unique user_id keys on the joined tables
+    @Query("""
+        select new com.gmrao.expenses.models.UserProfileView(
+            u.name, u.username, u.email, u.dateOfBirth, u.gender, u.phone,
+            a.addressLine1, a.addressLine2, a.city, a.pincode, a.countryId, a.stateId,
+            pp.etag, pa.etag)
+        from User u
+        left join AddressDetails a on a.userId = u.id
+        left join UserPhoto pp on pp.userId = u.id and pp.variant = com.gmrao.expenses.enums.PhotoVariant.PROFILE
+        left join UserPhoto pa on pa.userId = u.id and pa.variant = com.gmrao.expenses.enums.PhotoVariant.AVATAR
+        where u.id = :id
+    """)
+    Optional<UserProfileView> findProfileById(@Param("id") Long id);
 }
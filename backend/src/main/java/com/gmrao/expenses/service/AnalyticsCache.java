@@ -0,0 +1,94 @@
+package com.gmrao.expenses.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Bounded per-user cache for the analytics reads. Entries are evicted for a single user once an
+ * expense write for that user commits, and hit/miss/eviction counts are published as cache.* metrics.
+ */
+@Component
+public class AnalyticsCache {
+
+    public enum View { MONTHLY, CATEGORIES, SUMMARY, DASHBOARD }
+
+    private record Key(Long userId, View view, boolean json) {}
+
+    private final Cache<Key, Object> cache;
+    private final ObjectMapper objectMapper;
+
+    public AnalyticsCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                          @Value("${expenses.analytics-cache.max-entries:20000}") long maxEntries,
+                          @Value("${expenses.analytics-cache.expire-after-access:30m}") Duration expireAfterAccess) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "expenseAnalytics");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long userId, View view, Supplier<T> loader) {
+        return (T) cache.get(new Key(userId, view, false), k -> loader.get());
+    }
+
+    /**
+     * Loads and serializes inside the cache's own computation, so an eviction that lands meanwhile
+     * waits for it and then removes the entry instead of being overwritten by a stale put. The loader
+     * is called directly: Caffeine does not allow a computation to read another key of the same cache.
+     */
+    public byte[] getJson(Long userId, View view, Supplier<?> loader) {
+        return (byte[]) cache.get(new Key(userId, view, true), k -> {
+            try {
+                return objectMapper.writeValueAsBytes(loader.get());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Unable to serialize " + view, e);
+            }
+        });
+    }
+
+    public void evict(Long userId) {
+        List<Key> keys = new ArrayList<>();
+        for (View view : View.values()) {
+            keys.add(new Key(userId, view, false));
+            keys.add(new Key(userId, view, true));
+        }
+        cache.invalidateAll(keys);
+    }
+
+    /**
+     * Evicts once the surrounding transaction commits, so a concurrent read cannot re-cache
+     * the pre-write totals; evicts immediately when there is no transaction.
+     */
+    public void evictAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userId);
+            }
+        });
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,79 @@
+package com.gmrao.expenses.service;
+
+import com.gmrao.expenses.exceptions.TooManyRequestsException;
+import com.gmrao.expenses.utils.TokenBucketLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the unauthenticated auth endpoints before they reach BCrypt, the user lookup or the
+ * mail outbox. Every call is charged against two buckets: one for the identity it names (email,
+ * username or phone) and one for the client address, so neither a single account nor a single
+ * source can be hammered. An attempt only counts when both allow it. The client address is the
+ * servlet remote address; behind a proxy it is only meaningful with server.forward-headers-strategy
+ * set.
+ */
+@Component
+public class AuthRateLimiter {
+
+    @AllArgsConstructor
+    public enum Action {
+        // per identity: burst then one token per refill; per address the same scaled by ipFactor
+        LOGIN(5, Duration.ofMinutes(1), 6),
+        FORGOT_PASSWORD(3, Duration.ofMinutes(15), 4),
+        RECOVER_MAIL(3, Duration.ofMinutes(15), 4);
+
+        private final int capacity;
+        private final Duration window;
+        private final int ipFactor;
+
+        private long refillNanos(int tokens) {
+            return window.toNanos() / tokens;
+        }
+    }
+
+    private final TokenBucketLimiter limiter;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public AuthRateLimiter(MeterRegistry meterRegistry,
+                           @Value("${security.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${security.rate-limit.stripes:64}") int stripes,
+                           @Value("${security.rate-limit.max-buckets:100000}") int maxBuckets) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.limiter = new TokenBucketLimiter(stripes, maxBuckets);
+    }
+
+    /**
+     * Charges one attempt; throws TooManyRequestsException (429) when either bucket is empty. A
+     * rejected attempt is charged to neither bucket.
+     */
+    public void check(Action action, String identity, String clientAddress) {
+        if (!enabled) {
+            return;
+        }
+        String id = identity == null ? "" : identity.trim().toLowerCase(Locale.ROOT);
+        String identityKey = action + "|id|" + id;
+        long wait = limiter.tryAcquire(identityKey, action.capacity, action.refillNanos(action.capacity));
+        if (wait == 0) {
+            int ipCapacity = action.capacity * action.ipFactor;
+            wait = limiter.tryAcquire(action + "|ip|" + clientAddress, ipCapacity, action.refillNanos(ipCapacity));
+            if (wait > 0) {
+                // otherwise a flood from one address would also drain the accounts it names
+                limiter.refund(identityKey, action.capacity);
+            }
+        }
+        if (wait > 0) {
+            meterRegistry.counter("auth.rate_limited", "action", action.name()).increment();
+            throw new TooManyRequestsException("Too many attempts, try again later",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait) + 1));
+        }
+    }
+}
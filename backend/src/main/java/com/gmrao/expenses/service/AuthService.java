@@ -6,6 +6,8 @@ import com.gmrao.expenses.entity.User;
 import com.gmrao.expenses.repository.BlacklistedTokenRepository;
 import com.gmrao.expenses.repository.RefreshTokenRepository;
 import com.gmrao.expenses.repository.UserRepository;
+import com.gmrao.expenses.utils.Digests;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -22,6 +24,7 @@ public class AuthService {
     private final BlacklistedTokenRepository blacklistRepo;
     private final UserRepository userRepo;
     private final JwtService jwtService; // we will define
+    private final TokenRevocationIndex revocationIndex;
 
     // Generate new refresh token and replace old one
     public String issueRefreshToken(Long userId) {
@@ -30,7 +33,7 @@ public class AuthService {
         String token = UUID.randomUUID().toString();
         RefreshToken refresh = RefreshToken.builder()
                 .userId(userId)
-                .token(token)
+                .tokenHash(Digests.sha256Hex(token))
                 .issuedAt(OffsetDateTime.now())
                 .expiresAt(OffsetDateTime.now().plusDays(30))
                 .build();
@@ -39,13 +42,13 @@ public class AuthService {
     }
 
     public boolean isRefreshTokenValid(String token) {
-        return refreshRepo.findByToken(token)
+        return refreshRepo.findByTokenHash(Digests.sha256Hex(token))
                 .filter(rt -> !rt.isRevoked() && rt.getExpiresAt().isAfter(OffsetDateTime.now()))
                 .isPresent();
     }
 
     public User getUserIdFromRefreshToKen(String token) {
-        Optional<RefreshToken> refreshToken = refreshRepo.findByToken(token);
+        Optional<RefreshToken> refreshToken = refreshRepo.findByTokenHash(Digests.sha256Hex(token));
         if (refreshToken.isPresent()) {
             return userRepo.findById(refreshToken.get().getUserId()).get();
         }
@@ -61,15 +64,21 @@ public class AuthService {
     }
 
     public void blacklistAccessToken(String token) {
-        blacklistRepo.save(BlacklistedToken.builder()
-                .token(token)
-                .userId(jwtService.getUserId(token))
-                .expiresAt(jwtService.getExpiry(token))
-                .blacklistedAt(OffsetDateTime.now())
-                .build());
+        blacklistAccessToken(token, jwtService.parse(token));
     }
 
-    public boolean isAccessTokenBlacklisted(String token) {
-        return blacklistRepo.existsByToken(token);
+    public void blacklistAccessToken(String token, Claims claims) {
+        String tokenHash = Digests.sha256Hex(token);
+        // a repeated logout with the same token is a no-op rather than a unique key violation
+        if (!blacklistRepo.existsByTokenHash(tokenHash)) {
+            blacklistRepo.save(BlacklistedToken.builder()
+                    .tokenHash(tokenHash)
+                    .jti(claims.getId())
+                    .userId(JwtService.getUserId(claims))
+                    .expiresAt(JwtService.getExpiry(claims))
+                    .blacklistedAt(OffsetDateTime.now())
+                    .build());
+        }
+        revocationIndex.revoke(claims.getId(), JwtService.getExpiry(claims));
     }
 }
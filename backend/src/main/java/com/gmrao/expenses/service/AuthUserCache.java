@@ -0,0 +1,39 @@
+package com.gmrao.expenses.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gmrao.expenses.models.AuthUser;
+import com.gmrao.expenses.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Small cache of (id, email, role) for tokens that do not carry those claims themselves, such as
+ * tokens issued before the role claim existed. Profile updates evict the user's entry.
+ */
+@Component
+public class AuthUserCache {
+
+    private final UserRepository users;
+    private final Cache<Long, AuthUser> cache;
+
+    public AuthUserCache(UserRepository users,
+                         @Value("${security.user-cache.max-size:1000}") long maxSize,
+                         @Value("${security.user-cache.ttl:5m}") Duration ttl) {
+        this.users = users;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public AuthUser get(Long userId) {
+        return cache.get(userId, id -> users.findAuthUserById(id).orElse(null));
+    }
+
+    public void evict(Long userId) {
+        cache.invalidate(userId);
+    }
+}
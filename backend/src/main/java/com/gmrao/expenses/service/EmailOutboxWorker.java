@@ -0,0 +1,223 @@
+package com.gmrao.expenses.service;
+
+import com.gmrao.expenses.entity.EmailOutbox;
+import com.gmrao.expenses.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers queued mail from email_outbox. A drain claims a batch of due rows (FOR UPDATE SKIP
+ * LOCKED, so several workers or instances never pick the same row), pushes their next_attempt_at
+ * out by the lease so a crash mid-send only delays them, then sends the whole batch with one
+ * JavaMailSender.send call, which reuses a single SMTP connection for it. Failed rows are retried
+ * with exponential backoff until max-attempts, then marked FAILED. Bodies are decrypted only for the
+ * send and emptied when a row is settled.
+ */
+@Slf4j
+@Service
+public class EmailOutboxWorker {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final MailBodyCipher bodyCipher;
+    private final TransactionTemplate tx;
+    private final ThreadPoolExecutor workers;
+    private final String fromMail;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    public EmailOutboxWorker(EmailOutboxRepository outboxRepository,
+                             JavaMailSender mailSender,
+                             MailBodyCipher bodyCipher,
+                             TransactionTemplate tx,
+                             MeterRegistry meterRegistry,
+                             @Value("${spring.mail.username}") String fromMail,
+                             @Value("${expenses.mail-outbox.workers:2}") int workerCount,
+                             @Value("${expenses.mail-outbox.batch-size:50}") int batchSize,
+                             @Value("${expenses.mail-outbox.max-attempts:8}") int maxAttempts,
+                             @Value("${expenses.mail-outbox.lease:5m}") Duration lease,
+                             @Value("${expenses.mail-outbox.initial-backoff:30s}") Duration initialBackoff,
+                             @Value("${expenses.mail-outbox.max-backoff:1h}") Duration maxBackoff,
+                             @Value("${expenses.mail-outbox.retention:7d}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.bodyCipher = bodyCipher;
+        this.tx = tx;
+        this.fromMail = fromMail;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+        // one queued wake-up is enough: a drain keeps going until nothing is due
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.DiscardPolicy());
+        this.sent = meterRegistry.counter("mail.outbox.sent");
+        this.retried = meterRegistry.counter("mail.outbox.retried");
+        this.failed = meterRegistry.counter("mail.outbox.failed");
+    }
+
+    /**
+     * Starts a drain on an idle worker, or queues one; extra wake-ups are dropped.
+     */
+    public void wakeUp() {
+        workers.execute(this::drain);
+    }
+
+    // picks up retries that came due and anything a missed wake-up left behind
+    @Scheduled(initialDelayString = "${expenses.mail-outbox.poll-interval:PT15S}",
+            fixedDelayString = "${expenses.mail-outbox.poll-interval:PT15S}")
+    public void poll() {
+        wakeUp();
+    }
+
+    // package-private so tests can drain on their own thread instead of waiting for a worker
+    void drain() {
+        try {
+            List<EmailOutbox> batch;
+            do {
+                batch = claim();
+                if (!batch.isEmpty()) {
+                    deliver(batch);
+                }
+            } while (batch.size() == batchSize);
+        } catch (Exception e) {
+            log.warn("Mail outbox drain failed: {}", e.getMessage());
+        }
+    }
+
+    private List<EmailOutbox> claim() {
+        return tx.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutbox> due = outboxRepository.lockDue(now, batchSize);
+            for (EmailOutbox mail : due) {
+                mail.setAttempts(mail.getAttempts() + 1);
+                mail.setNextAttemptAt(now.plus(lease));
+            }
+            return due;
+        });
+    }
+
+    private void deliver(List<EmailOutbox> batch) {
+        Map<SimpleMailMessage, EmailOutbox> byMessage = new IdentityHashMap<>();
+        List<EmailOutbox> unreadable = new ArrayList<>();
+        for (EmailOutbox mail : batch) {
+            String text;
+            try {
+                text = bodyCipher.decrypt(mail.getBody());
+            } catch (IllegalArgumentException e) {
+                // another key, or tampered with; retrying cannot help
+                unreadable.add(mail);
+                continue;
+            }
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromMail);
+            message.setTo(mail.getRecipient());
+            message.setSubject(mail.getSubject());
+            message.setText(text);
+            byMessage.put(message, mail);
+        }
+        Collection<EmailOutbox> sendable = byMessage.values();
+
+        Map<EmailOutbox, String> errors = new HashMap<>();
+        if (!sendable.isEmpty()) {
+            try {
+                mailSender.send(byMessage.keySet().toArray(new SimpleMailMessage[0]));
+            } catch (MailSendException e) {
+                // per-message failures; anything not listed went through
+                e.getFailedMessages().forEach((message, cause) -> {
+                    EmailOutbox mail = byMessage.get(message);
+                    if (mail != null) {
+                        errors.put(mail, cause.getMessage());
+                    }
+                });
+                if (errors.isEmpty()) {
+                    sendable.forEach(mail -> errors.put(mail, e.getMessage()));
+                }
+            } catch (MailException e) {
+                // connection or authentication failure: nothing was sent
+                sendable.forEach(mail -> errors.put(mail, e.getMessage()));
+            }
+        }
+
+        List<Long> delivered = sendable.stream().filter(mail -> !errors.containsKey(mail)).map(EmailOutbox::getId).toList();
+        tx.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!delivered.isEmpty()) {
+                outboxRepository.markSent(delivered, now);
+            }
+            for (EmailOutbox mail : unreadable) {
+                outboxRepository.markFailed(mail.getId(), "body cannot be decrypted with the configured key");
+                failed.increment();
+                log.warn("Giving up on mail {} to {}: body cannot be decrypted", mail.getId(), mail.getRecipient());
+            }
+            errors.forEach((mail, error) -> {
+                String message = truncate(error);
+                if (mail.getAttempts() >= maxAttempts) {
+                    outboxRepository.markFailed(mail.getId(), message);
+                    failed.increment();
+                    log.warn("Giving up on mail {} to {} after {} attempts: {}",
+                            mail.getId(), mail.getRecipient(), mail.getAttempts(), message);
+                } else {
+                    outboxRepository.reschedule(mail.getId(), now.plus(backoff(mail.getAttempts())), message);
+                    retried.increment();
+                }
+            });
+        });
+        sent.increment(delivered.size());
+    }
+
+    // initial-backoff doubled per failed attempt, capped at max-backoff
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return "unknown error";
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    @Scheduled(initialDelayString = "PT5M", fixedDelayString = "PT6H")
+    public void purgeSent() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        Integer deleted;
+        do {
+            deleted = tx.execute(status -> outboxRepository.deleteSent(before, 500));
+        } while (deleted != null && deleted == 500);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
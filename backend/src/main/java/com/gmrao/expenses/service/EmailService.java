@@ -1,12 +1,19 @@
 package com.gmrao.expenses.service;
 
+import com.gmrao.expenses.entity.EmailOutbox;
+import com.gmrao.expenses.repository.EmailOutboxRepository;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
 
 @Service
 @RequiredArgsConstructor
@@ -16,8 +23,17 @@ public class EmailService {
     private String fromMail;
 
     private final JavaMailSender mailSender;
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailOutboxWorker outboxWorker;
+    private final MailBodyCipher bodyCipher;
 
-    public void sendMail(String to, String subject, String token) {
+    /**
+     * Queues the reset mail in the outbox as part of the caller's transaction, so the mail exists
+     * exactly when the reset token does. EmailOutboxWorker delivers it after commit. The body holds a
+     * usable reset link, so it is stored encrypted and emptied once the row is settled.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void queueResetMail(String to, String subject, String token) {
 
         String link = "http://localhost:5173/reset-password?token=" + token;
 
@@ -27,13 +43,20 @@ public class EmailService {
                 + "This link is valid for 15 minutes.\n\n"
                 + "Regards,\nSupport Team";
 
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(body);
-        message.setFrom(fromMail);
+        EmailOutbox mail = new EmailOutbox();
+        mail.setRecipient(to);
+        mail.setSubject(subject);
+        mail.setBody(bodyCipher.encrypt(body));
+        mail.setCreatedAt(LocalDateTime.now());
+        mail.setNextAttemptAt(LocalDateTime.now());
+        outboxRepository.save(mail);
 
-        mailSender.send(message);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxWorker.wakeUp();
+            }
+        });
     }
 
     public void sendHtmlMail(String to, String subject, String htmlContent) {
@@ -0,0 +1,158 @@
+package com.gmrao.expenses.service;
+
+import com.gmrao.expenses.entity.Expense;
+import com.gmrao.expenses.enums.BatchAction;
+import com.gmrao.expenses.enums.Category;
+import com.gmrao.expenses.models.BatchItemResult;
+import com.gmrao.expenses.models.BatchOperation;
+import com.gmrao.expenses.models.ExpenseRequest;
+import com.gmrao.expenses.repository.ExpenseRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies mixed create/update/delete operations in fixed-size chunks. Each chunk is one
+ * transaction whose inserts and updates go out as JDBC batches (hibernate.jdbc.batch_size),
+ * with a single rollup upsert per touched (month, category).
+ */
+@Slf4j
+@Service
+public class ExpenseBatchService {
+
+    private final ExpenseRepository repo;
+    private final ExpenseRollupService rollupService;
+    private final AnalyticsCache analyticsCache;
+    private final ExpenseVersions versions;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public ExpenseBatchService(ExpenseRepository repo, ExpenseRollupService rollupService,
+                               AnalyticsCache analyticsCache, ExpenseVersions versions,
+                               TransactionTemplate transactionTemplate, EntityManager entityManager, Validator validator,
+                               @Value("${expenses.batch.chunk-size:500}") int chunkSize) {
+        this.repo = repo;
+        this.rollupService = rollupService;
+        this.analyticsCache = analyticsCache;
+        this.versions = versions;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    public List<BatchItemResult> apply(Long userId, List<BatchOperation> operations) {
+        BatchItemResult[] results = new BatchItemResult[operations.size()];
+        for (int from = 0; from < operations.size(); from += chunkSize) {
+            applyChunk(userId, operations, from, Math.min(from + chunkSize, operations.size()), results);
+        }
+        analyticsCache.evict(userId);
+        versions.bump(userId);
+        return Arrays.asList(results);
+    }
+
+    private void applyChunk(Long userId, List<BatchOperation> operations, int from, int to, BatchItemResult[] results) {
+        Map<Integer, Expense> applied = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Long> ids = new HashSet<>();
+                for (int i = from; i < to; i++) {
+                    if (operations.get(i).id() != null) ids.add(operations.get(i).id());
+                }
+                Map<Long, Expense> owned = repo.findAllById(ids).stream()
+                        .filter(e -> userId.equals(e.getUserId()))
+                        .collect(Collectors.toMap(Expense::getId, Function.identity()));
+
+                Set<Expense> toSave = new LinkedHashSet<>();
+                List<Expense> toDelete = new ArrayList<>();
+                List<Expense> added = new ArrayList<>();
+                List<Expense> removed = new ArrayList<>();
+
+                for (int i = from; i < to; i++) {
+                    BatchOperation op = operations.get(i);
+                    String error = validate(op, owned);
+                    if (error != null) {
+                        results[i] = BatchItemResult.failed(i, op.action(), op.id(), error);
+                        continue;
+                    }
+                    switch (op.action()) {
+                        case CREATE -> {
+                            Expense e = new Expense();
+                            e.setUserId(userId);
+                            copy(op.expense(), e);
+                            toSave.add(e);
+                            added.add(e);
+                            applied.put(i, e);
+                        }
+                        case UPDATE -> {
+                            Expense e = owned.get(op.id());
+                            removed.add(e.copy());
+                            copy(op.expense(), e);
+                            toSave.add(e);
+                            added.add(e.copy());
+                            applied.put(i, e);
+                        }
+                        case DELETE -> {
+                            Expense e = owned.remove(op.id());
+                            toSave.remove(e);
+                            removed.add(e.copy());
+                            toDelete.add(e);
+                            applied.put(i, e);
+                        }
+                    }
+                }
+
+                repo.saveAll(toSave);
+                repo.deleteAll(toDelete);
+                rollupService.applyAll(removed, added);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            applied.forEach((i, e) -> results[i] = BatchItemResult.ok(i, operations.get(i).action(), e.getId()));
+        } catch (RuntimeException ex) {
+            log.warn("Expense batch chunk [{}, {}) failed for user {}", from, to, userId, ex);
+            applied.keySet().forEach(i -> results[i] = BatchItemResult.failed(i, operations.get(i).action(),
+                    operations.get(i).id(), "Chunk rolled back: " + ex.getMessage()));
+        }
+    }
+
+    private String validate(BatchOperation op, Map<Long, Expense> owned) {
+        if (op.action() != BatchAction.CREATE && (op.id() == null || !owned.containsKey(op.id()))) {
+            return "Expense not found";
+        }
+        if (op.action() == BatchAction.DELETE) {
+            return null;
+        }
+        if (op.expense() == null) {
+            return "Expense is required";
+        }
+        Set<ConstraintViolation<ExpenseRequest>> violations = validator.validate(op.expense());
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (Category.getCategory(op.expense().category()) == null) {
+            return "Unknown category";
+        }
+        return null;
+    }
+
+    private void copy(ExpenseRequest req, Expense e) {
+        e.setTitle(req.title());
+        e.setCategory(Category.getCategory(req.category()));
+        e.setAmount(req.amount());
+        e.setDate(req.date());
+    }
+}
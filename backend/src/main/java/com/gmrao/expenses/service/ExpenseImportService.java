@@ -0,0 +1,240 @@
+package com.gmrao.expenses.service;
+
+import com.gmrao.expenses.enums.BatchAction;
+import com.gmrao.expenses.models.*;
+import com.gmrao.expenses.utils.CsvReader;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk CSV import. The upload is moved to a temp file, then a bounded worker pool reads it one
+ * record at a time and hands fixed-size batches to ExpenseBatchService, so memory does not grow
+ * with file size. Expected columns (any order): title, category, amount, date. A record over the
+ * CsvReader caps (expenses.import.max-*) stops the job: rows before it stay imported, and the
+ * offending row is reported.
+ */
+@Slf4j
+@Service
+public class ExpenseImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final List<String> COLUMNS = List.of("title", "category", "amount", "date");
+
+    private final ExpenseBatchService batchService;
+    private final ThreadPoolExecutor workers;
+    private final int batchSize;
+    private final int maxFieldLength;
+    private final int maxRecordLength;
+    private final int maxRecordLines;
+    private final Duration retention;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ExpenseImportService(ExpenseBatchService batchService,
+                                @Value("${expenses.import.workers:2}") int workerCount,
+                                @Value("${expenses.import.queue-capacity:10}") int queueCapacity,
+                                @Value("${expenses.import.batch-size:1000}") int batchSize,
+                                @Value("${expenses.import.max-field-length:10000}") int maxFieldLength,
+                                @Value("${expenses.import.max-record-length:100000}") int maxRecordLength,
+                                @Value("${expenses.import.max-record-lines:100}") int maxRecordLines,
+                                @Value("${expenses.import.retention:1h}") Duration retention) {
+        this.batchService = batchService;
+        this.batchSize = batchSize;
+        this.maxFieldLength = maxFieldLength;
+        this.maxRecordLength = maxRecordLength;
+        this.maxRecordLines = maxRecordLines;
+        this.retention = retention;
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+    }
+
+    /**
+     * Queues an import and returns its initial status, or null when the worker queue is full.
+     */
+    public ImportJobStatus submit(Long userId, MultipartFile file) throws IOException {
+        purgeFinished();
+        Path upload = Files.createTempFile("expense-import-", ".csv");
+        file.transferTo(upload);
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), userId);
+        jobs.put(job.id, job);
+        try {
+            workers.execute(() -> run(job, upload));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            Files.deleteIfExists(upload);
+            return null;
+        }
+        return job.status();
+    }
+
+    public ImportJobStatus status(Long userId, String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            return null;
+        }
+        return job.status();
+    }
+
+    private void run(ImportJob job, Path upload) {
+        job.state = "RUNNING";
+        job.startedAt = OffsetDateTime.now();
+        try (CsvReader csv = new CsvReader(Files.newBufferedReader(upload, StandardCharsets.UTF_8),
+                maxFieldLength, maxRecordLength, maxRecordLines)) {
+            int[] columns = columnIndexes(csv.next());
+            List<BatchOperation> ops = new ArrayList<>(batchSize);
+            List<Long> rows = new ArrayList<>(batchSize);
+            long row = 1;
+            List<String> record;
+            try {
+                while ((record = csv.next()) != null) {
+                    row++;
+                    if (record.size() == 1 && record.get(0).isBlank()) {
+                        continue;
+                    }
+                    job.rowsRead.incrementAndGet();
+                    try {
+                        ops.add(new BatchOperation(BatchAction.CREATE, null, toRequest(record, columns)));
+                        rows.add(row);
+                    } catch (RuntimeException e) {
+                        job.failed(row, e.getMessage());
+                    }
+                    if (ops.size() == batchSize) {
+                        flush(job, ops, rows);
+                    }
+                }
+            } catch (CsvReader.LimitExceededException e) {
+                // where the next record starts is unknown, so nothing after this one is read
+                flush(job, ops, rows);
+                job.failed(row + 1, e.getMessage());
+                job.state = "FAILED";
+                return;
+            }
+            flush(job, ops, rows);
+            job.state = "COMPLETED";
+        } catch (Exception e) {
+            log.error("Expense import {} failed", job.id, e);
+            job.failed(0, e.getMessage());
+            job.state = "FAILED";
+        } finally {
+            job.finishedAt = OffsetDateTime.now();
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException e) {
+                log.warn("Could not delete import file {}", upload, e);
+            }
+        }
+    }
+
+    private void flush(ImportJob job, List<BatchOperation> ops, List<Long> rows) {
+        if (ops.isEmpty()) {
+            return;
+        }
+        List<BatchItemResult> results = batchService.apply(job.userId, ops);
+        for (BatchItemResult result : results) {
+            if (result.success()) {
+                job.rowsImported.incrementAndGet();
+            } else {
+                job.failed(rows.get(result.index()), result.error());
+            }
+        }
+        ops.clear();
+        rows.clear();
+    }
+
+    private int[] columnIndexes(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        int[] indexes = new int[COLUMNS.size()];
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            indexes[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (header.get(j).trim().replace("\uFEFF", "").equalsIgnoreCase(COLUMNS.get(i))) {
+                    indexes[i] = j;
+                }
+            }
+            if (indexes[i] < 0) {
+                throw new IllegalArgumentException("Missing column: " + COLUMNS.get(i));
+            }
+        }
+        return indexes;
+    }
+
+    private ExpenseRequest toRequest(List<String> record, int[] columns) {
+        String[] values = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i] < record.size() ? record.get(columns[i]).trim() : "";
+        }
+        BigDecimal amount;
+        LocalDate date;
+        try {
+            amount = new BigDecimal(values[2]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + values[2]);
+        }
+        try {
+            date = LocalDate.parse(values[3]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid date: " + values[3]);
+        }
+        return new ExpenseRequest(values[0], values[1], amount, date);
+    }
+
+    private void purgeFinished() {
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private static final class ImportJob {
+        private final String id;
+        private final Long userId;
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsFailed = new AtomicLong();
+        private final List<ImportRowError> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile String state = "QUEUED";
+        private volatile OffsetDateTime startedAt;
+        private volatile OffsetDateTime finishedAt;
+
+        private ImportJob(String id, Long userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+
+        private void failed(long row, String error) {
+            rowsFailed.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportRowError(row, error));
+            }
+        }
+
+        private ImportJobStatus status() {
+            List<ImportRowError> snapshot;
+            synchronized (errors) {
+                snapshot = List.copyOf(errors);
+            }
+            return new ImportJobStatus(id, state, rowsRead.get(), rowsImported.get(), rowsFailed.get(),
+                    snapshot, startedAt, finishedAt);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.gmrao.expenses.service;
+
+import com.gmrao.expenses.entity.Expense;
+import com.gmrao.expenses.enums.Category;
+import com.gmrao.expenses.repository.ExpenseRepository;
+import com.gmrao.expenses.repository.ExpenseRollupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps expense_rollups in step with the expenses table. Incremental updates join the caller's
+ * transaction; the full rebuild recomputes every user in parallel, one transaction per user.
+ */
+@Slf4j
+@Service
+public class ExpenseRollupService {
+
+    private final ExpenseRollupRepository rollupRepo;
+    private final ExpenseRepository expenseRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final AnalyticsCache analyticsCache;
+    private final ExpenseVersions versions;
+    private final ExecutorService rebuildPool;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    public ExpenseRollupService(ExpenseRollupRepository rollupRepo, ExpenseRepository expenseRepo,
+                                TransactionTemplate transactionTemplate, AnalyticsCache analyticsCache,
+                                ExpenseVersions versions,
+                                @Value("${expenses.rollup.rebuild-threads:4}") int rebuildThreads) {
+        this.rollupRepo = rollupRepo;
+        this.expenseRepo = expenseRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.analyticsCache = analyticsCache;
+        this.versions = versions;
+        this.rebuildPool = Executors.newFixedThreadPool(rebuildThreads);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void added(Expense e) {
+        rollupRepo.applyDelta(e.getUserId(), e.getDate().withDayOfMonth(1), e.getCategory().name(), e.getAmount(), 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removed(Expense e) {
+        String category = e.getCategory().name();
+        var periodStart = e.getDate().withDayOfMonth(1);
+        rollupRepo.applyDelta(e.getUserId(), periodStart, category, e.getAmount().negate(), -1);
+        rollupRepo.deleteEmpty(e.getUserId(), periodStart, category);
+    }
+
+    /**
+     * Folds many changes into one delta per bucket, so a batch touching hundreds of expenses
+     * issues one upsert per (month, category) instead of one per expense.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyAll(Collection<Expense> removed, Collection<Expense> added) {
+        Map<Bucket, Delta> deltas = new HashMap<>();
+        for (Expense e : removed) {
+            deltas.computeIfAbsent(Bucket.of(e), b -> new Delta()).add(e.getAmount().negate(), -1);
+        }
+        for (Expense e : added) {
+            deltas.computeIfAbsent(Bucket.of(e), b -> new Delta()).add(e.getAmount(), 1);
+        }
+        deltas.forEach((bucket, delta) -> {
+            if (delta.count == 0 && delta.amount.signum() == 0) {
+                return;
+            }
+            rollupRepo.applyDelta(bucket.userId(), bucket.periodStart(), bucket.category().name(), delta.amount, delta.count);
+            if (delta.count < 0) {
+                rollupRepo.deleteEmpty(bucket.userId(), bucket.periodStart(), bucket.category().name());
+            }
+        });
+    }
+
+    private record Bucket(Long userId, LocalDate periodStart, Category category) {
+        static Bucket of(Expense e) {
+            return new Bucket(e.getUserId(), e.getDate().withDayOfMonth(1), e.getCategory());
+        }
+    }
+
+    private static final class Delta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+
+        void add(BigDecimal amount, long count) {
+            this.amount = this.amount.add(amount);
+            this.count += count;
+        }
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    /**
+     * Recomputes rollups for every user that has expenses or stale rollups. Returns null when a
+     * rebuild is already running, otherwise a future holding the number of users rebuilt.
+     */
+    public CompletableFuture<Integer> rebuildAll() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return null;
+        }
+        Set<Long> userIds;
+        List<CompletableFuture<Void>> tasks;
+        long start = System.currentTimeMillis();
+        try {
+            userIds = new LinkedHashSet<>(expenseRepo.findDistinctUserIds());
+            userIds.addAll(rollupRepo.findDistinctUserIds());
+            tasks = userIds.stream()
+                    .map(userId -> CompletableFuture.runAsync(() -> rebuildUser(userId), rebuildPool))
+                    .toList();
+        } catch (RuntimeException e) {
+            // the flag is otherwise only cleared by whenComplete below; without this every later call would get 409
+            rebuilding.set(false);
+            throw e;
+        }
+        return CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+                .thenApply(v -> userIds.size())
+                .whenComplete((count, ex) -> {
+                    rebuilding.set(false);
+                    analyticsCache.evictAll();
+                    versions.bumpAll();
+                    if (ex != null) {
+                        log.error("Rollup rebuild failed", ex);
+                    } else {
+                        log.info("Rebuilt rollups for {} users in {} ms", count, System.currentTimeMillis() - start);
+                    }
+                });
+    }
+
+    public void rebuildUser(Long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            rollupRepo.deleteByUser(userId);
+            rollupRepo.rebuildForUser(userId);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildPool.shutdownNow();
+    }
+}
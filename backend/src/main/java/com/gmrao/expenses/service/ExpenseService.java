@@ -2,30 +2,112 @@
 package com.gmrao.expenses.service;
 
 import com.gmrao.expenses.entity.Expense;
+import com.gmrao.expenses.entity.ExpenseRollup;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gmrao.expenses.enums.Category;
+import com.gmrao.expenses.enums.ExportFormat;
+import com.gmrao.expenses.exceptions.BadRequestException;
 import com.gmrao.expenses.models.*;
 import com.gmrao.expenses.repository.ExpenseRepository;
+import com.gmrao.expenses.repository.ExpenseRollupRepository;
 import com.gmrao.expenses.repository.UserRepository;
+import com.gmrao.expenses.utils.ExpenseCursor;
+import com.gmrao.expenses.utils.ExpenseSpecs;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.*;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ExpenseService {
     private final ExpenseRepository repo;
     private final UserRepository userRepository;
+    private final ExpenseRollupRepository rollupRepo;
+    private final ExpenseRollupService rollupService;
+    private final AnalyticsCache analyticsCache;
+    private final ExpenseVersions versions;
+    private final ObjectMapper objectMapper;
 
+    public static final int MAX_PAGE_SIZE = 100;
+
+    @Transactional(readOnly = true)
     public List<ExpenseResponse> list(Long userId) {
-        List<Expense> page = repo.findByUserId(userId);
-        page.sort(Comparator.comparing(Expense::getCreatedAt).reversed());
-        return page.stream().map(this::toResp).toList();
+        return repo.findResponsesByUserId(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<ExpenseResponse> listPage(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ExpenseCursor after = cursor == null || cursor.isBlank() ? null : ExpenseCursor.decode(cursor);
+
+        // fetch one extra row to know whether another page exists
+        Limit limit = Limit.of(pageSize + 1);
+        List<Expense> rows = after == null
+                ? repo.findByUserIdOrderByCreatedAtDescIdDesc(userId, limit)
+                : repo.findPageAfter(userId, after.createdAt(), after.id(), limit);
+
+        int page = after == null ? 0 : after.page();
+        boolean hasNext = rows.size() > pageSize;
+        List<Expense> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? ExpenseCursor.after(page + 1, items.get(items.size() - 1)).encode() : null;
+
+        // the count walks the user's whole index range; later pages reuse the first page's figure
+        Long total = null;
+        Integer totalPages = null;
+        if (after == null) {
+            total = hasNext ? repo.countByUserId(userId) : items.size();
+            totalPages = (int) ((total + pageSize - 1) / pageSize);
+        }
+        return new PageResponse<>(items.stream().map(ExpenseResponse::from).toList(), page, pageSize, total, totalPages, nextCursor);
     }
 
+    @Transactional(readOnly = true)
+    public PageResponse<ExpenseResponse> search(Long userId, String text, String category, LocalDate from, LocalDate to,
+                                                BigDecimal minAmount, BigDecimal maxAmount, int page, int size) {
+        Category categoryFilter = null;
+        if (category != null && !category.isBlank()) {
+            categoryFilter = Category.getCategory(category);
+            if (categoryFilter == null) {
+                throw new BadRequestException("Unknown category: " + category);
+            }
+        }
+        Specification<Expense> spec = ExpenseSpecs.belongsTo(userId)
+                .and(ExpenseSpecs.categoryIs(categoryFilter))
+                .and(ExpenseSpecs.dateFrom(from))
+                .and(ExpenseSpecs.dateTo(to))
+                .and(ExpenseSpecs.amountMin(minAmount))
+                .and(ExpenseSpecs.amountMax(maxAmount))
+                .and(ExpenseSpecs.titleContains(text));
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), pageSize,
+                Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id")));
+        Page<Expense> result = repo.findAll(spec, pageable);
+        return new PageResponse<>(result.map(ExpenseResponse::from).getContent(), result.getNumber(), result.getSize(),
+                result.getTotalElements(), result.getTotalPages(), null);
+    }
+
+    @Transactional
     public ExpenseResponse create(Long userId, ExpenseRequest req) {
         Expense e = new Expense();
         e.setUserId(userId);
@@ -34,41 +116,67 @@ public class ExpenseService {
         e.setAmount(req.amount());
         e.setDate(req.date());
         e = repo.save(e);
-        return toResp(e);
+        rollupService.added(e);
+        analyticsCache.evictAfterCommit(userId);
+        versions.bumpAfterCommit(userId);
+        return ExpenseResponse.from(e);
     }
 
+    @Transactional
     public ExpenseResponse update(Long userId, Long id, ExpenseRequest req) {
         Expense e = repo.findById(id).orElseThrow(() -> new EntityNotFoundException("Expense not found"));
         if (!e.getUserId().equals(userId)) throw new EntityNotFoundException("Expense not found");
+        rollupService.removed(e);
         e.setTitle(req.title());
         e.setCategory(Category.getCategory(req.category()));
         e.setAmount(req.amount());
         e.setDate(req.date());
-        return toResp(repo.save(e));
+        e = repo.save(e);
+        rollupService.added(e);
+        analyticsCache.evictAfterCommit(userId);
+        versions.bumpAfterCommit(userId);
+        return ExpenseResponse.from(e);
     }
 
+    @Transactional
     public void delete(Long userId, Long id) {
         Expense e = repo.findById(id).orElseThrow(() -> new EntityNotFoundException("Expense not found"));
         if (!e.getUserId().equals(userId)) throw new EntityNotFoundException("Expense not found");
         repo.delete(e);
-    }
-
-    private ExpenseResponse toResp(Expense e) {
-        return new ExpenseResponse(e.getId(), e.getTitle(), e.getCategory().getCategory(), e.getAmount(), e.getDate());
+        rollupService.removed(e);
+        analyticsCache.evictAfterCommit(userId);
+        versions.bumpAfterCommit(userId);
     }
 
     public List<Map<String, Object>> getMonthlyTotals(Long userId) {
-        return repo.getMonthlyTotals(userId);
+        return analyticsCache.get(userId, AnalyticsCache.View.MONTHLY, () -> rollupRepo.getMonthlyTotals(userId));
     }
 
     public List<Map<String, Object>> getCategoryTotals(Long userId) {
-        return repo.getCategoryTotals(userId);
+        return analyticsCache.get(userId, AnalyticsCache.View.CATEGORIES, () -> rollupRepo.getCategoryTotals(userId));
     }
 
     public Map<String, Object> getSummary(Long userId) {
-        Double totalSpent = repo.totalSpent(userId);
-        Map<String, Object> highestCategory = repo.highestCategory(userId);
-        Double avgMonthly = repo.avgMonthly(userId);
+        return analyticsCache.get(userId, AnalyticsCache.View.SUMMARY, () -> loadSummary(userId));
+    }
+
+    public DashboardResponse getDashboard(Long userId) {
+        return analyticsCache.get(userId, AnalyticsCache.View.DASHBOARD, () -> loadDashboard(userId));
+    }
+
+    public byte[] getAnalyticsJson(Long userId, AnalyticsCache.View view) {
+        return analyticsCache.getJson(userId, view, () -> switch (view) {
+            case MONTHLY -> rollupRepo.getMonthlyTotals(userId);
+            case CATEGORIES -> rollupRepo.getCategoryTotals(userId);
+            case SUMMARY -> loadSummary(userId);
+            case DASHBOARD -> loadDashboard(userId);
+        });
+    }
+
+    private Map<String, Object> loadSummary(Long userId) {
+        Double totalSpent = rollupRepo.totalSpent(userId);
+        Map<String, Object> highestCategory = rollupRepo.highestCategory(userId);
+        Double avgMonthly = rollupRepo.avgMonthly(userId);
 
         return Map.of(
                 "totalSpent", totalSpent,
@@ -77,28 +185,76 @@ public class ExpenseService {
         );
     }
 
+    /**
+     * All dashboard aggregates from one read of the user's rollup rows (a few dozen at most).
+     */
+    private DashboardResponse loadDashboard(Long userId) {
+        Map<Month, BigDecimal> byMonth = new EnumMap<>(Month.class);
+        Map<Category, BigDecimal> byCategory = new EnumMap<>(Category.class);
+        Set<LocalDate> periods = new HashSet<>();
+        BigDecimal totalSpent = BigDecimal.ZERO;
+
+        for (ExpenseRollup r : rollupRepo.findByUserId(userId)) {
+            byMonth.merge(r.getPeriodStart().getMonth(), r.getTotal(), BigDecimal::add);
+            byCategory.merge(r.getCategory(), r.getTotal(), BigDecimal::add);
+            periods.add(r.getPeriodStart());
+            totalSpent = totalSpent.add(r.getTotal());
+        }
+
+        List<MonthlyTotal> monthly = byMonth.entrySet().stream()
+                .map(m -> new MonthlyTotal(m.getKey().getDisplayName(TextStyle.SHORT, Locale.ENGLISH), m.getValue()))
+                .toList();
+        List<CategoryTotal> categories = byCategory.entrySet().stream()
+                .map(c -> new CategoryTotal(c.getKey(), c.getValue()))
+                .sorted(Comparator.comparing(CategoryTotal::total).reversed())
+                .toList();
+        BigDecimal avgMonthly = periods.isEmpty() ? BigDecimal.ZERO
+                : totalSpent.divide(BigDecimal.valueOf(periods.size()), 2, RoundingMode.HALF_UP);
+
+        return new DashboardResponse(monthly, categories, totalSpent,
+                categories.isEmpty() ? null : categories.get(0), avgMonthly);
+    }
+
+    @Transactional(readOnly = true)
     public ExportData exportData(Long userId) {
         String userName = userRepository.findNameById(userId);
-        List<Expense> data = repo.findByUserId(userId);
-        ExportData exportData = new ExportData();
-        exportData.setName(userName);
-        data.stream()
-                .map(exp -> {
-                    ExportDetails exportDetails = new ExportDetails();
-                    exportDetails.setAmount(exp.getAmount());
-                    exportDetails.setCategory(exp.getCategory().getCategory());
-                    exportDetails.setDate(exp.getDate());
-                    exportDetails.setTitle(exp.getTitle());
-                    return exportDetails;
-                })
-                .forEach(exportData.getExportDetails()::add);
-        return exportData;
-    }
-
-    public ExpenseResponse fetch(Long id) {
-        Expense expense = repo.findById(id)
+        return new ExportData(userName, repo.findExportDetailsByUserId(userId));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamExport(Long userId, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write("title,category,amount,date\n");
+        }
+        // rows arrive as DTOs, so nothing accumulates in the persistence context
+        try (Stream<ExportDetails> rows = repo.streamExportDetailsByUserId(userId)) {
+            Iterator<ExportDetails> it = rows.iterator();
+            while (it.hasNext()) {
+                ExportDetails exp = it.next();
+                if (format == ExportFormat.CSV) {
+                    writer.write(csv(exp.getTitle()) + "," + exp.getCategory() + ","
+                            + exp.getAmount().toPlainString() + "," + exp.getDate() + "\n");
+                } else {
+                    writer.write(objectMapper.writeValueAsString(exp));
+                    writer.write("\n");
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    @Transactional(readOnly = true)
+    public ExpenseResponse fetch(Long userId, Long id) {
+        return repo.findResponseById(id, userId)
                 .orElseThrow(() -> new RuntimeException("Expense not found or unauthorized"));
-        return toResp(expense);
     }
 
 }
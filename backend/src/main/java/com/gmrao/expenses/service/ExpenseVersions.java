@@ -0,0 +1,53 @@
+package com.gmrao.expenses.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user data version for conditional GETs. Every committed expense write moves the user to a
+ * fresh value of a global counter; the boot id keeps ETags from one process lifetime from
+ * matching another. Entries are never evicted, so a version can never go back to an old value.
+ */
+@Component
+public class ExpenseVersions {
+
+    private final AtomicLong counter = new AtomicLong();
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private volatile String epoch = newEpoch();
+
+    public String etag(Long userId) {
+        return "W/\"" + epoch + "-" + versions.getOrDefault(userId, 0L) + "\"";
+    }
+
+    public void bump(Long userId) {
+        versions.put(userId, counter.incrementAndGet());
+    }
+
+    public void bumpAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump(userId);
+            }
+        });
+    }
+
+    // invalidates every outstanding ETag, e.g. after a rollup rebuild
+    public void bumpAll() {
+        epoch = newEpoch();
+    }
+
+    private static String newEpoch() {
+        return Long.toString(UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE, 36);
+    }
+}
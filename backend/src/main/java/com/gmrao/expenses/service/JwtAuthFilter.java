@@ -1,8 +1,6 @@
 package com.gmrao.expenses.service;
 
-import com.gmrao.expenses.entity.User;
-import com.gmrao.expenses.repository.BlacklistedTokenRepository;
-import com.gmrao.expenses.repository.UserRepository;
+import com.gmrao.expenses.models.AuthUser;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,8 +19,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtService jwt;
-    private final UserRepository users;
-    private final BlacklistedTokenRepository blacklistRepo;
+    private final AuthUserCache userCache;
+    private final TokenRevocationIndex revocationIndex;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -36,15 +34,19 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         try {
             var claims = jwt.parse(token);
             String jti = claims.getId();
-            if (blacklistRepo.existsByToken(jti)) {
+            if (revocationIndex.isRevoked(jti)) {
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 return;
             }
-            String userId = claims.getSubject();
-            User u = users.findById(Long.parseLong(userId)).orElse(null);
+            AuthUser u = JwtService.getAuthUser(claims);
+            if (u == null) {
+                u = userCache.get(JwtService.getUserId(claims));
+            }
             if (u != null) {
-                var authority = new SimpleGrantedAuthority(u.getRole().getName());
+                var authority = new SimpleGrantedAuthority(u.role());
                 var auth = new UsernamePasswordAuthenticationToken(u, null, List.of(authority));
+                // verified claims ride along so later steps (e.g. logout) need not parse the token again
+                auth.setDetails(claims);
                 SecurityContextHolder.getContext().setAuthentication(auth);
             }
         } catch (Exception ignored) {
@@ -1,12 +1,20 @@
 package com.gmrao.expenses.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.gmrao.expenses.entity.User;
+import com.gmrao.expenses.models.AuthUser;
+import com.gmrao.expenses.utils.Digests;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.OffsetDateTime;
@@ -23,16 +31,47 @@ public class JwtService {
     private final long ACCESS_TTL_MS = 15 * 60 * 10 * 1000L;   // 15 minutes
     private final long REFRESH_TTL_MS = 7L * 24 * 60 * 60 * 1000; // 7 days
 
+    // key and parser are immutable and thread-safe, so build them once
+    private final SecretKey signingKey = Keys.hmacShaKeyFor(jetSecret.getBytes(StandardCharsets.UTF_8));
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+    // already-verified tokens by SHA-256 digest, each kept only until its own exp
+    private final Cache<String, Claims> verified;
+
+    public JwtService(@Value("${security.jwt.verified-cache-size:10000}") long verifiedCacheSize) {
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long millis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return Math.max(0, millis) * 1_000_000L;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     public String generateAccessToken(User u) {
         String jti = UUID.randomUUID().toString();
         return Jwts.builder()
                 .setSubject(u.getId().toString())
                 .setId(jti)
                 .claim("email", u.getEmail())
+                .claim("role", u.getRole().getName())
                 .claim("roles", u.getRole())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + ACCESS_TTL_MS))
-                .signWith(Keys.hmacShaKeyFor(jetSecret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -44,31 +83,61 @@ public class JwtService {
                 .claim("type", "refresh")
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + REFRESH_TTL_MS))
-                .signWith(Keys.hmacShaKeyFor(jetSecret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies the token, or returns the claims of an identical token verified earlier that has not expired yet.
+     */
     public Claims parse(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(Keys.hmacShaKeyFor(jetSecret.getBytes(StandardCharsets.UTF_8)))
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        String digest = Digests.sha256Hex(token);
+        Claims claims = verified.getIfPresent(digest);
+        if (claims != null && claims.getExpiration().after(new Date())) {
+            return claims;
+        }
+        claims = parser.parseClaimsJws(token).getBody();
+        verified.put(digest, claims);
+        return claims;
     }
 
     public Long getUserId(String token) {
-        String tokenId = parse(token).getSubject();
-        return Long.parseLong(tokenId);
+        return getUserId(parse(token));
     }
     public String getJti(String token) { return parse(token).getId(); }
     public OffsetDateTime getExpiry(String token) {
-        Date date = parse(token).getExpiration();
-        Instant instant = date.toInstant();
-        return OffsetDateTime.ofInstant(instant, ZoneId.systemDefault());
+        return getExpiry(parse(token));
     }
 
     public OffsetDateTime getIssue(String token) {
-        Date date = parse(token).getIssuedAt();
+        return getIssue(parse(token));
+    }
+
+    /**
+     * Principal from the token alone, or null when the token predates the email/role claims.
+     */
+    public static AuthUser getAuthUser(Claims claims) {
+        String email = claims.get("email", String.class);
+        String role = claims.get("role", String.class);
+        if (email == null || role == null) {
+            return null;
+        }
+        return new AuthUser(getUserId(claims), email, role);
+    }
+
+    public static Long getUserId(Claims claims) {
+        return Long.parseLong(claims.getSubject());
+    }
+
+    public static OffsetDateTime getExpiry(Claims claims) {
+        return toOffsetDateTime(claims.getExpiration());
+    }
+
+    public static OffsetDateTime getIssue(Claims claims) {
+        return toOffsetDateTime(claims.getIssuedAt());
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Date date) {
         Instant instant = date.toInstant();
         return OffsetDateTime.ofInstant(instant, ZoneId.systemDefault());
     }
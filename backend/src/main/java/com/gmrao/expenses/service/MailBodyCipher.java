@@ -0,0 +1,69 @@
+package com.gmrao.expenses.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Encrypts outbox bodies at rest. A reset mail carries a usable link, so email_outbox only ever
+ * holds it as AES-GCM ciphertext under expenses.mail-outbox.body-key: base64 of a random 12-byte
+ * IV followed by the ciphertext and its tag.
+ */
+@Component
+public class MailBodyCipher {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey key;
+    private final SecureRandom random = new SecureRandom();
+
+    public MailBodyCipher(@Value("${expenses.mail-outbox.body-key}") String base64Key) {
+        byte[] bytes = Base64.getDecoder().decode(base64Key.trim());
+        if (bytes.length != 16 && bytes.length != 24 && bytes.length != 32) {
+            throw new IllegalArgumentException("expenses.mail-outbox.body-key must be a base64 AES key of 16, 24 or 32 bytes");
+        }
+        this.key = new SecretKeySpec(bytes, "AES");
+    }
+
+    public String encrypt(String body) {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] sealed = cipher.doFinal(body.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(IV_LENGTH + sealed.length)
+                    .put(iv).put(sealed).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt the mail body", e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException when the value was not produced by this key, or was altered
+     */
+    public String decrypt(String stored) {
+        try {
+            byte[] bytes = Base64.getDecoder().decode(stored);
+            if (bytes.length <= IV_LENGTH) {
+                throw new IllegalArgumentException("Not an encrypted mail body");
+            }
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, bytes, 0, IV_LENGTH));
+            return new String(cipher.doFinal(bytes, IV_LENGTH, bytes.length - IV_LENGTH), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Mail body cannot be decrypted with the configured key", e);
+        }
+    }
+}
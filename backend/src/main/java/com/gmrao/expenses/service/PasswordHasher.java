@@ -0,0 +1,112 @@
+package com.gmrao.expenses.service;
+
+import com.gmrao.expenses.exceptions.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt on its own bounded pool so a burst of logins queues here instead of occupying
+ * request threads. Callers wait at most the configured timeout (queueing included); a full queue
+ * or a timeout surfaces as PasswordHashingUnavailableException (503). Publishes
+ * auth.password.hashing (time per operation, tagged op and outcome), auth.password.queue.wait
+ * and the auth.password.queue.size gauge.
+ */
+@Service
+public class PasswordHasher {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder encoder;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor workers;
+    private final Duration timeout;
+    private final int cost;
+    private final Timer queueWait;
+
+    public PasswordHasher(PasswordEncoder encoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${security.password.bcrypt-cost:10}") int cost,
+                          @Value("${security.password.threads:0}") int threads,
+                          @Value("${security.password.queue-capacity:64}") int queueCapacity,
+                          @Value("${security.password.timeout:5s}") Duration timeout) {
+        this.encoder = encoder;
+        this.meterRegistry = meterRegistry;
+        this.cost = cost;
+        this.timeout = timeout;
+        // by default leave half the cores to request handling and the database driver
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+        this.queueWait = Timer.builder("auth.password.queue.wait").register(meterRegistry);
+        meterRegistry.gauge("auth.password.queue.size", workers, pool -> pool.getQueue().size());
+    }
+
+    public String encode(String rawPassword) {
+        return run("encode", () -> encoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String passwordHash) {
+        return run("verify", () -> encoder.matches(rawPassword, passwordHash));
+    }
+
+    /**
+     * True when the hash was made with a different BCrypt cost than the one configured now.
+     */
+    public boolean needsRehash(String passwordHash) {
+        Matcher m = BCRYPT_COST.matcher(passwordHash);
+        return !m.find() || Integer.parseInt(m.group(1)) != cost;
+    }
+
+    private <T> T run(String op, Callable<T> task) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = workers.submit(() -> {
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            record(op, "rejected", queuedAt);
+            throw new PasswordHashingUnavailableException("Too many password requests, try again shortly");
+        }
+        try {
+            T result = future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            record(op, "success", queuedAt);
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            record(op, "timeout", queuedAt);
+            throw new PasswordHashingUnavailableException("Password check timed out, try again shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            record(op, "interrupted", queuedAt);
+            throw new PasswordHashingUnavailableException("Password check interrupted");
+        } catch (ExecutionException e) {
+            record(op, "error", queuedAt);
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void record(String op, String outcome, long startedAt) {
+        Timer.builder("auth.password.hashing")
+                .tag("op", op)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,240 @@
+package com.gmrao.expenses.service;
+
+import com.gmrao.expenses.entity.UserPhoto;
+import com.gmrao.expenses.enums.PhotoVariant;
+import com.gmrao.expenses.repository.UserPhotoRepository;
+import com.gmrao.expenses.repository.UserRepository;
+import com.gmrao.expenses.utils.Digests;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.*;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns uploaded photos into the renditions listed in PhotoVariant. Uploads are spooled to temp
+ * files and queued to a bounded worker pool, so a full queue holds paths rather than image bytes;
+ * each job decodes the image once (subsampled while reading when it is far larger than needed),
+ * scales it down per variant and re-encodes it with ImageIO. Re-encoding drops EXIF/XMP metadata,
+ * since only pixels are written back.
+ */
+@Slf4j
+@Service
+public class PhotoProcessingService {
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final UserPhotoRepository photoRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate tx;
+    private final ThreadPoolExecutor workers;
+    private final long maxPixels;
+
+    // latest upload per user; a job only stores its renditions if it is still the latest
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public PhotoProcessingService(UserPhotoRepository photoRepository,
+                                  UserRepository userRepository,
+                                  TransactionTemplate tx,
+                                  @Value("${expenses.photo.workers:2}") int workerCount,
+                                  @Value("${expenses.photo.queue-capacity:50}") int queueCapacity,
+                                  @Value("${expenses.photo.max-pixels:50000000}") long maxPixels) {
+        this.photoRepository = photoRepository;
+        this.userRepository = userRepository;
+        this.tx = tx;
+        this.maxPixels = maxPixels;
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+    }
+
+    /**
+     * Queues the upload for processing. Returns false when the worker queue is full.
+     */
+    public boolean submit(Long userId, MultipartFile file) throws IOException {
+        Path upload = Files.createTempFile("user-photo-", ".upload");
+        try {
+            file.transferTo(upload);
+        } catch (IOException e) {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+        long seq = sequence.incrementAndGet();
+        pending.put(userId, seq);
+        try {
+            workers.execute(() -> process(userId, seq, upload));
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(userId, seq);
+            Files.deleteIfExists(upload);
+            return false;
+        }
+    }
+
+    /**
+     * Drops any queued or running job for the user, so a photo deleted meanwhile stays deleted.
+     * Callers hold UserRepository.lockById for the user, the lock a job stores under.
+     */
+    public void cancel(Long userId) {
+        pending.remove(userId);
+    }
+
+    private void process(Long userId, long seq, Path upload) {
+        try {
+            if (!isLatest(userId, seq)) {
+                return;
+            }
+            BufferedImage source = decode(upload, PhotoVariant.PROFILE.getMaxEdge());
+            Map<PhotoVariant, Rendition> renditions = new EnumMap<>(PhotoVariant.class);
+            for (PhotoVariant variant : PhotoVariant.values()) {
+                renditions.put(variant, encode(scale(source, variant.getMaxEdge())));
+            }
+            tx.executeWithoutResult(status -> {
+                // UserService.deletePhoto cancels while holding this lock, so the check below cannot
+                // pass for a job whose photo is being deleted
+                userRepository.lockById(userId);
+                if (isLatest(userId, seq)) {
+                    store(userId, renditions);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Photo processing failed for user {}: {}", userId, e.getMessage());
+        } finally {
+            pending.remove(userId, seq);
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException e) {
+                log.warn("Could not delete photo upload {}", upload, e);
+            }
+        }
+    }
+
+    private boolean isLatest(Long userId, long seq) {
+        return Objects.equals(pending.get(userId), seq);
+    }
+
+    private void store(Long userId, Map<PhotoVariant, Rendition> renditions) {
+        Map<PhotoVariant, UserPhoto> existing = new EnumMap<>(PhotoVariant.class);
+        for (UserPhoto photo : photoRepository.findByUserId(userId)) {
+            existing.put(photo.getVariant(), photo);
+        }
+        List<UserPhoto> photos = new ArrayList<>();
+        renditions.forEach((variant, rendition) -> {
+            UserPhoto photo = existing.getOrDefault(variant, new UserPhoto());
+            photo.setUserId(userId);
+            photo.setVariant(variant);
+            photo.setContent(rendition.content());
+            photo.setContentType(rendition.contentType());
+            photo.setSizeBytes(rendition.content().length);
+            photo.setEtag(Digests.sha256Hex(rendition.content()));
+            photo.setUpdatedAt(LocalDateTime.now());
+            photos.add(photo);
+        });
+        photoRepository.saveAll(photos);
+    }
+
+    // Reads the image, asking the decoder to skip pixels when it is more than twice the largest rendition
+    private BufferedImage decode(Path upload, int largestEdge) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(upload.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("Image too large: " + width + "x" + height);
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (largestEdge * 2));
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves the image until close to the target, then does one last bilinear pass; a single large
+    // bilinear step would skip most source pixels and alias badly
+    private static BufferedImage scale(BufferedImage source, int maxEdge) {
+        boolean alpha = source.getColorModel().hasAlpha();
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage current = source;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                if (!alpha) {
+                    // JPEG has no alpha channel; flatten onto white rather than black
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, width, height);
+                }
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // JPEG for opaque images, PNG when transparency has to survive
+    private static Rendition encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (image.getColorModel().hasAlpha()) {
+            ImageIO.write(image, "png", out);
+            return new Rendition("image/png", out.toByteArray());
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (MemoryCacheImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return new Rendition("image/jpeg", out.toByteArray());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private record Rendition(String contentType, byte[] content) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.gmrao.expenses.service;
+
+import com.gmrao.expenses.entity.Country;
+import com.gmrao.expenses.entity.Roles;
+import com.gmrao.expenses.entity.State;
+import com.gmrao.expenses.models.Countries;
+import com.gmrao.expenses.models.States;
+import com.gmrao.expenses.repository.CountryRepository;
+import com.gmrao.expenses.repository.RolesRepository;
+import com.gmrao.expenses.repository.StateRepository;
+import com.gmrao.expenses.utils.Digests;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Countries, states and roles, read once at startup into immutable maps and swapped as a whole on
+ * reload(). Readers always see one consistent snapshot. The etag is a digest of the snapshot
+ * content, so every instance serving the same data hands out the same validator.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataCache {
+
+    private record Snapshot(List<Countries> countries,
+                            Map<Long, String> countryNames,
+                            Map<Long, List<States>> statesByCountry,
+                            Map<Long, String> stateNames,
+                            Map<String, Long> roleIds,
+                            String etag) {}
+
+    private final CountryRepository countryRepository;
+    private final StateRepository stateRepository;
+    private final RolesRepository rolesRepository;
+
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void reload() {
+        StringBuilder content = new StringBuilder();
+
+        List<Countries> countries = new ArrayList<>();
+        Map<Long, String> countryNames = new HashMap<>();
+        for (Country country : countryRepository.findAll()) {
+            countries.add(new Countries(country.getId(), country.getName()));
+            if (country.getName() != null) {
+                countryNames.put(country.getId(), country.getName());
+            }
+            content.append('c').append(country.getId()).append(':').append(country.getName()).append('\n');
+        }
+
+        Map<Long, List<States>> statesByCountry = new HashMap<>();
+        Map<Long, String> stateNames = new HashMap<>();
+        for (State state : stateRepository.findAll()) {
+            if (state.getCountryId() == null || state.getName() == null) {
+                continue;
+            }
+            statesByCountry.computeIfAbsent(state.getCountryId(), id -> new ArrayList<>())
+                    .add(new States(state.getId(), state.getName()));
+            stateNames.put(state.getId(), state.getName());
+            content.append('s').append(state.getId()).append(':').append(state.getCountryId())
+                    .append(':').append(state.getName()).append('\n');
+        }
+        Map<Long, List<States>> frozenStates = new HashMap<>();
+        statesByCountry.forEach((countryId, states) -> frozenStates.put(countryId, List.copyOf(states)));
+
+        Map<String, Long> roleIds = new HashMap<>();
+        for (Roles role : rolesRepository.findAll()) {
+            if (role.getName() != null) {
+                roleIds.put(role.getName(), role.getId());
+            }
+        }
+
+        snapshot = new Snapshot(List.copyOf(countries), Map.copyOf(countryNames),
+                Map.copyOf(frozenStates), Map.copyOf(stateNames), Map.copyOf(roleIds),
+                "\"" + Digests.sha256Hex(content.toString()).substring(0, 32) + "\"");
+        log.info("Loaded {} countries, {} states and {} roles", countryNames.size(), stateNames.size(), roleIds.size());
+    }
+
+    public List<Countries> countries() {
+        return snapshot.countries();
+    }
+
+    public List<States> states(Long countryId) {
+        return countryId == null ? List.of() : snapshot.statesByCountry().getOrDefault(countryId, List.of());
+    }
+
+    public String countryName(Long countryId) {
+        return countryId == null ? null : snapshot.countryNames().get(countryId);
+    }
+
+    public String stateName(Long stateId) {
+        return stateId == null ? null : snapshot.stateNames().get(stateId);
+    }
+
+    // a known state id is not enough: it also has to belong to the country given with it
+    public boolean isStateOf(Long countryId, Long stateId) {
+        if (stateId == null) {
+            return false;
+        }
+        for (States state : states(countryId)) {
+            if (state.id().equals(stateId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Long roleId(String name) {
+        return snapshot.roleIds().get(name);
+    }
+
+    public String etag() {
+        return snapshot.etag();
+    }
+
+    public Map<String, Integer> counts() {
+        Snapshot current = snapshot;
+        return Map.of("countries", current.countryNames().size(),
+                "states", current.stateNames().size(),
+                "roles", current.roleIds().size());
+    }
+}
@@ -0,0 +1,120 @@
+package com.gmrao.expenses.service;
+
+import com.gmrao.expenses.repository.BlacklistedTokenRepository;
+import com.gmrao.expenses.repository.RefreshTokenRepository;
+import com.gmrao.expenses.repository.ResetPasswordTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Periodically deletes expired blacklist entries, expired or revoked refresh tokens and expired
+ * password reset tokens. Each DELETE is capped at batch-size rows and commits on its own, so no run
+ * holds row locks or undo for long. Publishes auth.tokens.purged (counter) and auth.tokens.rows
+ * (gauge, refreshed after each run from InnoDB's row estimate rather than a COUNT(*) scan) tagged
+ * by table. The pauses between batches sleep on a
+ * scheduler thread, so spring.task.scheduling.pool.size keeps the other scheduled jobs running.
+ */
+@Slf4j
+@Service
+public class TokenPurgeService {
+
+    private final BlacklistedTokenRepository blacklistRepo;
+    private final RefreshTokenRepository refreshRepo;
+    private final ResetPasswordTokenRepository resetRepo;
+    private final TransactionTemplate tx;
+    private final JdbcTemplate jdbc;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Duration pause;
+    private final Map<String, AtomicLong> rows = new ConcurrentHashMap<>();
+
+    public TokenPurgeService(BlacklistedTokenRepository blacklistRepo,
+                             RefreshTokenRepository refreshRepo,
+                             ResetPasswordTokenRepository resetRepo,
+                             TransactionTemplate tx,
+                             JdbcTemplate jdbc,
+                             MeterRegistry meterRegistry,
+                             @Value("${security.token-purge.batch-size:500}") int batchSize,
+                             @Value("${security.token-purge.max-batches:200}") int maxBatches,
+                             @Value("${security.token-purge.pause:50ms}") Duration pause) {
+        this.blacklistRepo = blacklistRepo;
+        this.refreshRepo = refreshRepo;
+        this.resetRepo = resetRepo;
+        this.tx = tx;
+        this.jdbc = jdbc;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.pause = pause;
+    }
+
+    @Scheduled(initialDelayString = "${security.token-purge.initial-delay:PT1M}",
+            fixedDelayString = "${security.token-purge.interval:PT1H}")
+    public void purge() {
+        OffsetDateTime now = OffsetDateTime.now();
+        LocalDateTime localNow = LocalDateTime.now();
+        long purged = purge("blacklisted_tokens", () -> blacklistRepo.deleteExpired(now, batchSize))
+                + purge("refresh_tokens", () -> refreshRepo.deleteExpired(now, batchSize))
+                + purge("refresh_tokens", () -> refreshRepo.deleteRevoked(batchSize))
+                + purge("password_reset_tokens", () -> resetRepo.deleteExpired(localNow, batchSize));
+
+        recordRows();
+        if (purged > 0) {
+            log.info("Token purge removed {} rows", purged);
+        }
+    }
+
+    // Repeats one bounded DELETE until it comes back short, each batch in its own transaction
+    private long purge(String table, IntSupplier batch) {
+        Counter counter = Counter.builder("auth.tokens.purged").tag("table", table).register(meterRegistry);
+        long total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            Integer deleted = tx.execute(status -> batch.getAsInt());
+            int count = deleted == null ? 0 : deleted;
+            counter.increment(count);
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(pause.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return total;
+    }
+
+    // TABLE_ROWS is an estimate (MySQL 8 also caches it for information_schema_stats_expiry), which is
+    // enough for a trend and costs no scan of the tables being purged
+    private void recordRows() {
+        jdbc.query("""
+                SELECT table_name, table_rows
+                FROM information_schema.tables
+                WHERE table_schema = DATABASE()
+                  AND table_name IN ('blacklisted_tokens', 'refresh_tokens', 'password_reset_tokens')
+                """, rs -> {
+            rows.computeIfAbsent(rs.getString(1).toLowerCase(Locale.ROOT),
+                            t -> meterRegistry.gauge("auth.tokens.rows", Tags.of("table", t), new AtomicLong()))
+                    .set(rs.getLong(2));
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package com.gmrao.expenses.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.gmrao.expenses.entity.BlacklistedToken;
+import com.gmrao.expenses.repository.BlacklistedTokenRepository;
+import com.gmrao.expenses.utils.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+
+/**
+ * In-memory set of revoked access-token jtis, loaded from blacklisted_tokens at startup and
+ * updated on logout. Each entry expires with its token. A Bloom filter answers the common
+ * "not revoked" case without touching the map; it is rebuilt periodically to shed expired jtis.
+ */
+@Slf4j
+@Component
+public class TokenRevocationIndex {
+
+    private final BlacklistedTokenRepository blacklistRepo;
+    private final int expectedRevocations;
+    private final Cache<String, Long> revoked;
+    private volatile BloomFilter bloom;
+
+    public TokenRevocationIndex(BlacklistedTokenRepository blacklistRepo,
+                                @Value("${security.revocation.expected-size:100000}") int expectedRevocations) {
+        this.blacklistRepo = blacklistRepo;
+        this.expectedRevocations = expectedRevocations;
+        // never size-bounded: evicting a live entry would un-revoke its token
+        this.revoked = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String jti, Long expiresAtMillis, long currentTime) {
+                        return Math.max(0, expiresAtMillis - System.currentTimeMillis()) * 1_000_000L;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String jti, Long expiresAtMillis, long currentTime, long currentDuration) {
+                        return expireAfterCreate(jti, expiresAtMillis, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String jti, Long expiresAtMillis, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.bloom = new BloomFilter(expectedRevocations, 0.01);
+    }
+
+    @PostConstruct
+    public void load() {
+        int loaded = 0;
+        for (BlacklistedToken row : blacklistRepo.findByExpiresAtAfter(OffsetDateTime.now())) {
+            // rows written before the jti column existed cannot be matched any more
+            if (row.getJti() == null) {
+                continue;
+            }
+            revoke(row.getJti(), row.getExpiresAt());
+            loaded++;
+        }
+        log.info("Loaded {} revoked access tokens", loaded);
+    }
+
+    public void revoke(String jti, OffsetDateTime expiresAt) {
+        revoked.put(jti, expiresAt.toInstant().toEpochMilli());
+        bloom.add(jti);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloom.mightContain(jti)) {
+            return false;
+        }
+        return revoked.getIfPresent(jti) != null;
+    }
+
+    @Scheduled(fixedDelayString = "${security.revocation.bloom-rebuild-interval:PT15M}")
+    public void rebuildBloom() {
+        revoked.cleanUp();
+        BloomFilter fresh = new BloomFilter(Math.max(expectedRevocations, (int) revoked.estimatedSize() * 2), 0.01);
+        revoked.asMap().keySet().forEach(fresh::add);
+        bloom = fresh;
+        // jtis revoked while the fresh filter was filling must not be lost
+        revoked.asMap().keySet().forEach(fresh::add);
+    }
+}
@@ -1,26 +1,28 @@
 package com.gmrao.expenses.service;
 
 import com.gmrao.expenses.entity.*;
+import com.gmrao.expenses.enums.PhotoVariant;
 import com.gmrao.expenses.enums.RolesEnum;
+import com.gmrao.expenses.exceptions.BadRequestException;
+import com.gmrao.expenses.exceptions.PasswordHashingUnavailableException;
 import com.gmrao.expenses.models.*;
 import com.gmrao.expenses.repository.*;
+import com.gmrao.expenses.utils.Digests;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository repo;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
     private final RolesRepository rolesRepository;
     private final UserRoleRepository userRoleRepository;
@@ -28,22 +30,24 @@ public class UserService {
     private final AddressDetailsRepository addressDetailsRepository;
     private final ResetPasswordTokenRepository passwordRepository;
     private final EmailService emailService;
-    private final CountryRepository countryRepository;
-    private final StateRepository stateRepository;
+    private final ReferenceDataCache referenceData;
+    private final AuthUserCache authUserCache;
+    private final UserPhotoRepository photoRepository;
+    private final PhotoProcessingService photoProcessing;
 
     public AuthResponse register(RegisterRequest req) {
         if (repo.existsByEmail(req.email())) {
             throw new RuntimeException("Email already registered");
         }
 
-        Roles roles = rolesRepository.findByName(RolesEnum.USER.getRoleName());
+        Roles roles = rolesRepository.getReferenceById(referenceData.roleId(RolesEnum.USER.getRoleName()));
 
         User user = new User();
         user.setName(req.name());
         user.setEmail(req.email());
         user.setUsername(req.email().split("@")[0]);
         user.setRole(roles);
-        user.setPasswordHash(passwordEncoder.encode(req.password()));
+        user.setPasswordHash(passwordHasher.encode(req.password()));
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
         user = repo.save(user);
@@ -62,19 +66,21 @@ public class UserService {
         User user = repo.findByEmailOrUsernameOrPhone(req.email(), req.email(), req.email())
                 .orElseThrow(() -> new RuntimeException("Invalid email or password"));
 
-        if (!passwordEncoder.matches(req.password(), user.getPasswordHash())) {
+        if (!passwordHasher.matches(req.password(), user.getPasswordHash())) {
             throw new RuntimeException("Invalid email or password");
         }
+        rehashIfNeeded(user, req.password());
 
         String token = jwtService.generateAccessToken(user);
         String refreshToken = jwtService.generateRefreshToken(user);
+        Claims claims = jwtService.parse(token);
 
         RefreshToken refreshToken1 = new RefreshToken();
         refreshToken1.setUserId(user.getId());
-        refreshToken1.setToken(token);
+        refreshToken1.setTokenHash(Digests.sha256Hex(token));
         refreshToken1.setRevoked(false);
-        refreshToken1.setIssuedAt(jwtService.getExpiry(token));
-        refreshToken1.setExpiresAt(jwtService.getIssue(token));
+        refreshToken1.setIssuedAt(JwtService.getIssue(claims));
+        refreshToken1.setExpiresAt(JwtService.getExpiry(claims));
 
         tokenRepository.save(refreshToken1);
 
@@ -83,6 +89,20 @@ public class UserService {
         return new AuthResponse(token, refreshToken, userDto);
     }
 
+    // Moves the stored hash to the configured BCrypt cost while the plain password is at hand
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordHasher.needsRehash(user.getPasswordHash())) {
+            return;
+        }
+        try {
+            user.setPasswordHash(passwordHasher.encode(rawPassword));
+            user.setUpdatedAt(LocalDateTime.now());
+            repo.save(user);
+        } catch (PasswordHashingUnavailableException e) {
+            // the login itself succeeded; the next one will retry the upgrade
+        }
+    }
+
     private UserDto getUserDTo(User user) {
         return new UserDto(
                 user.getId(),
@@ -92,11 +112,14 @@ public class UserService {
                 user.getPhone(),
                 user.getGender(),
                 user.getDateOfBirth(),
-                convertBytesToNumeric(user.getPhoto()),          // <-- RAW BYTES
-                user.getPhotoType()
+                photoUrl(user.getId(), PhotoVariant.AVATAR)
         );
     }
 
+    private String photoUrl(Long userId, PhotoVariant variant) {
+        return photoRepository.findInfo(userId, variant).map(PhotoInfo::url).orElse(null);
+    }
+
     public boolean existsByEmail(String email) {
         return repo.existsByEmailOrUsernameOrPhone(email, email, email);
     }
@@ -113,6 +136,7 @@ public class UserService {
         user.setPhone(personalDetailsRequest.phone());
         user.setEmail(personalDetailsRequest.email());
         repo.save(user);
+        authUserCache.evict(currentUserId);
         return "Personal details updated";
     }
 
@@ -121,15 +145,16 @@ public class UserService {
         if (addressDetails == null) {
             addressDetails = new AddressDetails();
         }
-        String country = countryRepository.findById(userContactDetails.country()).get().getName();
-        String state = stateRepository.findById(userContactDetails.state()).get().getName();
+        if (!referenceData.isStateOf(userContactDetails.country(), userContactDetails.state())) {
+            throw new BadRequestException("Unknown country or state");
+        }
         addressDetails.setUserId(currentUserId);
         addressDetails.setCity(userContactDetails.city());
         addressDetails.setAddressLine1(userContactDetails.addressLine1());
         addressDetails.setAddressLine2(userContactDetails.addressLine2());
         addressDetails.setPincode(userContactDetails.pincode());
-        addressDetails.setCountry(country);
-        addressDetails.setState(state);
+        addressDetails.setCountryId(userContactDetails.country());
+        addressDetails.setStateId(userContactDetails.state());
         addressDetailsRepository.save(addressDetails);
         return "Update contact details";
     }
@@ -139,8 +164,8 @@ public class UserService {
         if (user == null) {
             return null;
         }
-        if (passwordEncoder.matches(user.getPasswordHash(), oldPassword)) {
-            String hashed = passwordEncoder.encode(newPassword);
+        if (passwordHasher.matches(oldPassword, user.getPasswordHash())) {
+            String hashed = passwordHasher.encode(newPassword);
             user.setPasswordHash(hashed);
             repo.save(user);
         } else {
@@ -150,83 +175,68 @@ public class UserService {
     }
 
     public UserDetailsResponse getUserDetails(Long currentUserId) {
-        User user = repo.findById(currentUserId).orElse(null);
-        if (user == null) {
+        UserProfileView profile = repo.findProfileById(currentUserId).orElse(null);
+        if (profile == null) {
             return null;
         }
-        Long countryId = 0L, stateId = 0L;
-        AddressDetails addressDetails = addressDetailsRepository.findByUserId(currentUserId);
-        if (addressDetails == null) {
-            addressDetails = new AddressDetails();
-        } else {
-            countryId = countryRepository.findIdByName(addressDetails.getCountry());
-            stateId = stateRepository.findIdByName(addressDetails.getState());
-        }
-
-        int[] numeric = convertBytesToNumeric(user.getPhoto());
-
-        byte[] bytes = user.getPhoto();
-
-        for (int i = 0; i < bytes.length; i++) {
-            numeric[i] = bytes[i] & 0xFF;  // convert signed byte → 0-255
-        }
 
         return UserDetailsResponse.builder()
-                .userName(user.getUsername())
-                .email(user.getEmail())
-                .fullName(user.getName())
-                .addressLine1(addressDetails.getAddressLine1() != null ? addressDetails.getAddressLine1() : "")
-                .addressLine2(addressDetails.getAddressLine2() != null ? addressDetails.getAddressLine2() : "")
-                .city(addressDetails.getCity() != null ? addressDetails.getCity() : "")
-                .gender(user.getGender() != null ? user.getGender() : "")
-                .dateOfBirth(user.getDateOfBirth() != null ? user.getDateOfBirth() : null)
-                .phone(user.getPhone() != null ? user.getPhone() : "")
-                .country((addressDetails.getCountry() != null) ? addressDetails.getCountry() : null)
-                .state(addressDetails.getState() != null ? addressDetails.getState() : null)
-                .pincode(addressDetails.getPincode() != null ? addressDetails.getPincode() : "")
-                .photo(numeric)
-                .countryId(countryId)
-                .stateId(stateId)
+                .userName(profile.username())
+                .email(profile.email())
+                .fullName(profile.name())
+                .addressLine1(profile.addressLine1() != null ? profile.addressLine1() : "")
+                .addressLine2(profile.addressLine2() != null ? profile.addressLine2() : "")
+                .city(profile.city() != null ? profile.city() : "")
+                .gender(profile.gender() != null ? profile.gender() : "")
+                .dateOfBirth(profile.dateOfBirth())
+                .phone(profile.phone() != null ? profile.phone() : "")
+                .country(referenceData.countryName(profile.countryId()))
+                .state(referenceData.stateName(profile.stateId()))
+                .pincode(profile.pincode() != null ? profile.pincode() : "")
+                .photoUrl(PhotoInfo.url(PhotoVariant.PROFILE, profile.profilePhotoEtag()))
+                .avatarUrl(PhotoInfo.url(PhotoVariant.AVATAR, profile.avatarPhotoEtag()))
+                .countryId(profile.countryId() != null ? profile.countryId() : 0L)
+                .stateId(profile.stateId() != null ? profile.stateId() : 0L)
                 .build();
     }
 
-    private int[] convertBytesToNumeric(byte[] photo) {
-        int[] numeric = new int[photo.length];
-
-        for (int i = 0; i < photo.length; i++) {
-            numeric[i] = photo[i] & 0xFF;  // convert signed byte → 0-255
+    /**
+     * Hands the upload to PhotoProcessingService; renditions replace the current photo once ready.
+     * Returns false when the processing queue is full.
+     */
+    public boolean uploadPhoto(Long userId, MultipartFile file) throws Exception {
+        if (!repo.existsById(userId)) {
+            throw new RuntimeException("User not found");
         }
-        return numeric;
+        return photoProcessing.submit(userId, file);
     }
 
-    public void uploadPhoto(Long userId, MultipartFile file) throws Exception {
-
-        User user = repo.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        user.setPhoto(file.getBytes());
-        user.setPhotoType(file.getContentType());
+    public PhotoInfo getPhotoInfo(Long userId, PhotoVariant variant) {
+        return photoRepository.findInfo(userId, variant).orElse(null);
+    }
 
-        repo.save(user);
+    public byte[] getPhotoContent(Long userId, PhotoVariant variant) {
+        return photoRepository.findContent(userId, variant).orElse(null);
     }
 
+    @Transactional
     public Map<String, String> forgotPassword(String email) {
         String token = UUID.randomUUID().toString();
 
         // save token with expiry
         PasswordResetTokens resetToken = new PasswordResetTokens();
         resetToken.setEmail(email);
-        resetToken.setToken(token);
+        resetToken.setTokenHash(Digests.sha256Hex(token));
         resetToken.setCreatedAt(LocalDateTime.now());
         resetToken.setExpiresAt(LocalDateTime.now().plusMinutes(15));
         passwordRepository.save(resetToken);
 
-        emailService.sendMail(email, "Reset Password", token);
+        emailService.queueResetMail(email, "Reset Password", token);
         return Map.of("message", "Reset email sent");
     }
 
     public Map<String, String> resetPassword(ResetPasswordRequest req) {
-        PasswordResetTokens token = passwordRepository.findByToken(req.token())
+        PasswordResetTokens token = passwordRepository.findByTokenHash(Digests.sha256Hex(req.token()))
                 .orElseThrow(() -> new RuntimeException("Invalid token"));
 
         if (token.getExpiresAt().isBefore(LocalDateTime.now())) {
@@ -234,7 +244,7 @@ public class UserService {
         }
 
         User user = repo.findByEmail(token.getEmail()).get();
-        user.setPasswordHash(passwordEncoder.encode(req.newPassword()));
+        user.setPasswordHash(passwordHasher.encode(req.newPassword()));
         repo.save(user);
 
         passwordRepository.delete(token);
@@ -249,32 +259,20 @@ public class UserService {
     }
 
     public List<States> getStateList(Long countryId) {
-        List<State> statesList = stateRepository.findByCountryId(countryId);
-        List<States> returnList = new ArrayList<>();
-        for (State state : statesList) {
-            States states = new States(state.getId(), state.getName());
-            returnList.add(states);
-        }
-        return returnList;
+        return referenceData.states(countryId);
     }
 
     public List<Countries> getCountryList() {
-        List<Country> countries = countryRepository.findAll();
-        List<Countries> returnList = new ArrayList<>();
-        for (Country country : countries) {
-            Countries county = new Countries(country.getId(), country.getName());
-            returnList.add(county);
-        }
-        return returnList;
+        return referenceData.countries();
     }
 
+    @Transactional
     public void deletePhoto(Long userId) {
-        User user = repo.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        user.setPhoto(null);
-        user.setPhotoType(null);
-
-        repo.save(user);
+        // a photo job stores under the same lock, so it either finished before this or sees the cancel
+        if (repo.lockById(userId).isEmpty()) {
+            throw new RuntimeException("User not found");
+        }
+        photoProcessing.cancel(userId);
+        photoRepository.deleteByUserId(userId);
     }
 }
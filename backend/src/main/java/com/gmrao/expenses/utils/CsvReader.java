@@ -0,0 +1,120 @@
+package com.gmrao.expenses.utils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader that pulls one record at a time from the underlying reader.
+ * Quoted fields may contain commas, doubled quotes and line breaks. Input is read a character at
+ * a time against caps on field length, record length and the lines one record may span, so an
+ * unclosed quote or a huge line fails with {@link LimitExceededException} instead of pulling the
+ * rest of the input onto the heap.
+ */
+public class CsvReader implements Closeable {
+
+    public static final int DEFAULT_MAX_FIELD_LENGTH = 10_000;
+    public static final int DEFAULT_MAX_RECORD_LENGTH = 100_000;
+    public static final int DEFAULT_MAX_RECORD_LINES = 100;
+
+    private static final int EOF = -1;
+
+    private final BufferedReader reader;
+    private final int maxFieldLength;
+    private final int maxRecordLength;
+    private final int maxRecordLines;
+
+    public CsvReader(Reader reader) {
+        this(reader, DEFAULT_MAX_FIELD_LENGTH, DEFAULT_MAX_RECORD_LENGTH, DEFAULT_MAX_RECORD_LINES);
+    }
+
+    public CsvReader(Reader reader, int maxFieldLength, int maxRecordLength, int maxRecordLines) {
+        this.reader = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+        this.maxFieldLength = maxFieldLength;
+        this.maxRecordLength = maxRecordLength;
+        this.maxRecordLines = maxRecordLines;
+    }
+
+    /**
+     * Returns the next record, or null at the end of the input.
+     *
+     * @throws LimitExceededException when the record breaks one of the caps; the reader is then
+     *                                positioned somewhere inside that record and should be closed
+     */
+    public List<String> next() throws IOException {
+        int c = reader.read();
+        if (c == EOF) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int recordLength = 0;
+        int lines = 1;
+        for (; c != EOF; c = reader.read()) {
+            boolean lineBreak = c == '\r' || c == '\n';
+            if (c == '\r') {
+                nextIs('\n');
+            }
+            if (lineBreak && !quoted) {
+                break;
+            }
+            // separators and quotes count too, or a line of commas would grow the field list unchecked
+            if (++recordLength > maxRecordLength) {
+                throw new LimitExceededException("Record longer than " + maxRecordLength + " characters");
+            }
+            if (lineBreak) {
+                if (++lines > maxRecordLines) {
+                    throw new LimitExceededException("Quoted field spans more than " + maxRecordLines
+                            + " lines; is a closing quote missing?");
+                }
+                c = '\n';
+            } else if (quoted && c == '"') {
+                if (!nextIs('"')) {
+                    quoted = false;
+                    continue;
+                }
+            } else if (!quoted && c == '"') {
+                quoted = true;
+                continue;
+            } else if (!quoted && c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                continue;
+            }
+            if (field.length() == maxFieldLength) {
+                throw new LimitExceededException("Field longer than " + maxFieldLength + " characters");
+            }
+            field.append((char) c);
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // consumes the next character only when it is the expected one
+    private boolean nextIs(char expected) throws IOException {
+        reader.mark(1);
+        if (reader.read() == expected) {
+            return true;
+        }
+        reader.reset();
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * A record broke one of the reader's caps. The message says which one, for the import report.
+     */
+    public static class LimitExceededException extends IOException {
+        public LimitExceededException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.gmrao.expenses.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 helpers. Hex output is always 64 lowercase characters, which is what the CHAR(64)
+ * digest columns store and what MySQL's SHA2(x, 256) produces.
+ */
+public final class Digests {
+
+    private Digests() {
+    }
+
+    public static String sha256Hex(String value) {
+        return sha256Hex(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String sha256Hex(byte[] value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
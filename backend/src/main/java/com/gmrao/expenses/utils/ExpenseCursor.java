@@ -0,0 +1,39 @@
+package com.gmrao.expenses.utils;
+
+import com.gmrao.expenses.entity.Expense;
+import com.gmrao.expenses.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for the expense listing: the (createdAt, id) of the last row
+ * already returned plus the index of the page it points to.
+ */
+public record ExpenseCursor(int page, OffsetDateTime createdAt, Long id) {
+
+    public static ExpenseCursor after(int page, Expense last) {
+        return new ExpenseCursor(page, last.getCreatedAt(), last.getId());
+    }
+
+    public String encode() {
+        String raw = page + "|" + createdAt.toInstant() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ExpenseCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            return new ExpenseCursor(
+                    Integer.parseInt(parts[0]),
+                    OffsetDateTime.ofInstant(Instant.parse(parts[1]), ZoneOffset.UTC),
+                    Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -4,9 +4,13 @@ package com.gmrao.expenses.utils;
 import com.gmrao.expenses.entity.Expense;
 import com.gmrao.expenses.enums.Category;
 import org.springframework.data.jpa.domain.Specification;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 public class ExpenseSpecs {
+    // not a backslash: MySQL would read the rendered ESCAPE '\' literal as an escaped quote
+    private static final char LIKE_ESCAPE = '!';
+
     public static Specification<Expense> belongsTo(Long userId) {
         return (root, q, cb) -> cb.equal(root.get("userId"), userId);
     }
@@ -19,4 +23,26 @@ public class ExpenseSpecs {
     public static Specification<Expense> dateTo(LocalDate to) {
         return (root, q, cb) -> to == null ? cb.conjunction() : cb.lessThanOrEqualTo(root.get("date"), to);
     }
+    public static Specification<Expense> amountMin(BigDecimal min) {
+        return (root, q, cb) -> min == null ? cb.conjunction() : cb.greaterThanOrEqualTo(root.get("amount"), min);
+    }
+    public static Specification<Expense> amountMax(BigDecimal max) {
+        return (root, q, cb) -> max == null ? cb.conjunction() : cb.lessThanOrEqualTo(root.get("amount"), max);
+    }
+    public static Specification<Expense> titleContains(String text) {
+        return (root, q, cb) -> text == null || text.isBlank() ? cb.conjunction()
+                : cb.like(cb.lower(root.get("title")), "%" + escapeLike(text.trim().toLowerCase()) + "%", LIKE_ESCAPE);
+    }
+
+    // the search text is matched literally, so % and _ typed by the user are not wildcards
+    static String escapeLike(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
 }
@@ -0,0 +1,123 @@
+package com.gmrao.expenses.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token buckets keyed by string, split over a fixed number of stripes that each guard their own
+ * access-ordered map. Keys on different stripes never contend. Each stripe holds at most
+ * maxBucketsPerStripe buckets; the least recently used one is dropped beyond that, and buckets idle
+ * long enough to have refilled completely are dropped as they surface, since a fresh bucket is
+ * indistinguishable from them.
+ */
+public class TokenBucketLimiter {
+
+    private final Stripe[] stripes;
+    private final int maxBucketsPerStripe;
+
+    public TokenBucketLimiter(int stripeCount, int maxBuckets) {
+        // rounded up to a power of two so the stripe index is a mask
+        this.stripes = new Stripe[stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.maxBucketsPerStripe = Math.max(1, maxBuckets / stripes.length);
+    }
+
+    /**
+     * Takes one token from the key's bucket. Returns 0 when allowed, otherwise the nanoseconds
+     * until a token becomes available.
+     *
+     * @param capacity     burst size, also the starting balance of a new bucket
+     * @param refillNanos  time to earn back one token
+     */
+    public long tryAcquire(String key, int capacity, long refillNanos) {
+        Stripe stripe = stripe(key);
+        long now = System.nanoTime();
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now, (long) capacity * refillNanos);
+                stripe.buckets.put(key, bucket);
+            } else {
+                double earned = (double) (now - bucket.updatedAt) / refillNanos;
+                bucket.tokens = Math.min(capacity, bucket.tokens + earned);
+                bucket.updatedAt = now;
+            }
+            long wait;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                wait = 0;
+            } else {
+                wait = (long) Math.ceil((1 - bucket.tokens) * refillNanos);
+            }
+            stripe.evictIdle(now);
+            return wait;
+        }
+    }
+
+    /**
+     * Gives back a token taken by tryAcquire, for callers that charge several buckets and only
+     * want the charge to stand when all of them allow it. A bucket dropped in the meantime is left
+     * alone, since it starts out full anyway.
+     */
+    public void refund(String key, int capacity) {
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket != null) {
+                bucket.tokens = Math.min(capacity, bucket.tokens + 1);
+            }
+        }
+    }
+
+    // buckets currently held, over all stripes
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripe(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    private final class Stripe {
+        private final LinkedHashMap<String, Bucket> buckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                return size() > maxBucketsPerStripe;
+            }
+        };
+
+        // the map is in access order, so idle buckets sit at the head
+        private void evictIdle(long now) {
+            Iterator<Bucket> it = buckets.values().iterator();
+            for (int i = 0; i < 2 && it.hasNext(); i++) {
+                Bucket eldest = it.next();
+                if (now - eldest.updatedAt < eldest.fullRefillNanos) {
+                    return;
+                }
+                it.remove();
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private final long fullRefillNanos;
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(double tokens, long updatedAt, long fullRefillNanos) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+            this.fullRefillNanos = fullRefillNanos;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+-- address_details points at countries/states by id instead of repeating their names
+ALTER TABLE address_details
+    ADD COLUMN country_id BIGINT NULL,
+    ADD COLUMN state_id BIGINT NULL;
+
+UPDATE address_details a
+    JOIN countries c ON c.name = a.country
+SET a.country_id = c.id;
+
+UPDATE address_details a
+    JOIN states s ON s.name = a.state AND s.country_id = a.country_id
+SET a.state_id = s.id;
+
+-- one address per user; keep the most recent row
+DELETE a1 FROM address_details a1
+    JOIN address_details a2 ON a1.user_id = a2.user_id AND a1.id < a2.id;
+
+ALTER TABLE address_details
+    DROP COLUMN country,
+    DROP COLUMN state,
+    ADD CONSTRAINT uk_address_details_user UNIQUE (user_id);
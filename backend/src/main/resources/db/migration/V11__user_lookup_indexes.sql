@@ -0,0 +1,9 @@
+-- login and existence checks match email OR username OR phone; each branch needs its own index
+CREATE INDEX idx_users_email ON users (email);
+CREATE INDEX idx_users_username ON users (username);
+CREATE INDEX idx_users_phone ON users (phone);
+
+CREATE INDEX idx_states_country ON states (country_id);
+
+-- logout revokes every refresh token of the user
+CREATE INDEX idx_refresh_tokens_user ON refresh_tokens (user_id);
@@ -0,0 +1,9 @@
+-- Outbox bodies are stored encrypted (MailBodyCipher) and emptied once a row is settled. Rows written
+-- before hold reset links in plaintext: settled ones no longer need the body, and pending ones
+-- could not be decrypted, so they are given up on.
+UPDATE email_outbox
+SET status     = 'FAILED',
+    last_error = 'queued before bodies were encrypted'
+WHERE status = 'PENDING';
+
+UPDATE email_outbox SET body = '';
@@ -0,0 +1,104 @@
+-- Schema as it stood before versioned migrations. Databases that already have these tables are
+-- baselined at version 1 (spring.flyway.baseline-on-migrate) and start from V2.
+
+CREATE TABLE roles (
+    id   BIGINT       NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+INSERT INTO roles (name) VALUES ('ADMIN'), ('USER');
+
+CREATE TABLE countries (
+    id   BIGINT       NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    iso2 VARCHAR(255),
+    iso3 VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE states (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    name       VARCHAR(255),
+    country_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE users (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    name          VARCHAR(255),
+    email         VARCHAR(255),
+    username      VARCHAR(255),
+    password      VARCHAR(255),
+    role_id       BIGINT       NOT NULL,
+    created_at    DATETIME(6),
+    updated_at    DATETIME(6),
+    photo         LONGBLOB,
+    photo_type    VARCHAR(255),
+    phone         VARCHAR(255),
+    gender        VARCHAR(255),
+    date_of_birth DATE,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_users_role FOREIGN KEY (role_id) REFERENCES roles (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE user_roles (
+    id         BIGINT    NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT    NOT NULL,
+    role_id    BIGINT    NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE address_details (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    address_line_1 VARCHAR(255),
+    address_line_2 VARCHAR(255),
+    city           VARCHAR(255),
+    state          VARCHAR(255),
+    country        VARCHAR(255),
+    pincode        VARCHAR(255),
+    user_id        BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE expenses (
+    id           BIGINT         NOT NULL AUTO_INCREMENT,
+    user_id      BIGINT         NOT NULL,
+    title        VARCHAR(255)   NOT NULL,
+    category     VARCHAR(32)    NOT NULL,
+    amount       DECIMAL(14, 2) NOT NULL,
+    expense_date DATE           NOT NULL,
+    created_at   DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE refresh_tokens (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT      NOT NULL,
+    token      TEXT        NOT NULL,
+    issued_at  DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    revoked    BIT         NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE blacklisted_tokens (
+    id             BIGINT      NOT NULL AUTO_INCREMENT,
+    token          TEXT        NOT NULL,
+    user_id        BIGINT      NOT NULL,
+    expires_at     DATETIME(6) NOT NULL,
+    blacklisted_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE password_reset_tokens (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    email      VARCHAR(255),
+    token      VARCHAR(255),
+    expires_at DATETIME(6),
+    created_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,25 @@
+-- Keyset listing, date-range search and category filters all start from user_id
+CREATE INDEX idx_expenses_user_created ON expenses (user_id, created_at, id);
+CREATE INDEX idx_expenses_user_date ON expenses (user_id, expense_date);
+CREATE INDEX idx_expenses_user_category ON expenses (user_id, category);
+
+CREATE TABLE expense_rollups (
+    id            BIGINT         NOT NULL AUTO_INCREMENT,
+    user_id       BIGINT         NOT NULL,
+    period_start  DATE           NOT NULL,
+    category      VARCHAR(32)    NOT NULL,
+    total         DECIMAL(16, 2) NOT NULL,
+    expense_count BIGINT         NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_rollup_user_period_category UNIQUE (user_id, period_start, category)
+) ENGINE = InnoDB;
+
+-- Same aggregation as ExpenseRollupRepository.rebuildForUser, for every user at once
+INSERT INTO expense_rollups (user_id, period_start, category, total, expense_count)
+SELECT e.user_id,
+       DATE_FORMAT(e.expense_date, '%Y-%m-01'),
+       e.category,
+       SUM(e.amount),
+       COUNT(*)
+FROM expenses e
+GROUP BY e.user_id, DATE_FORMAT(e.expense_date, '%Y-%m-01'), e.category;
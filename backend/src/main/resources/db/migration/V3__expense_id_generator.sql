@@ -0,0 +1,10 @@
+-- Expense ids come from a pooled TABLE generator (allocationSize 50) so inserts can be batched.
+-- Start well above every id handed out by AUTO_INCREMENT so pooled blocks never collide with them.
+CREATE TABLE id_generators (
+    name     VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
+
+INSERT INTO id_generators (name, next_val)
+SELECT 'expenses', COALESCE(MAX(id), 0) + 100 FROM expenses;
@@ -0,0 +1,16 @@
+-- TokenRevocationIndex keys revoked access tokens by jti. Rows blacklisted before the column existed
+-- take it from the stored JWT: the payload is the second base64url segment of JWT-shaped tokens; it
+-- is decoded as bytes into a scratch column and only read as JSON when it looks like a JSON object.
+ALTER TABLE blacklisted_tokens
+    ADD COLUMN jti VARCHAR(36) NULL,
+    ADD COLUMN jwt_payload BLOB NULL;
+UPDATE blacklisted_tokens
+SET jwt_payload = FROM_BASE64(
+        RPAD(REPLACE(REPLACE(SUBSTRING_INDEX(SUBSTRING_INDEX(token, '.', 2), '.', -1), '-', '+'), '_', '/'),
+             CEIL(LENGTH(SUBSTRING_INDEX(SUBSTRING_INDEX(token, '.', 2), '.', -1)) / 4) * 4, '='))
+WHERE token REGEXP '^[A-Za-z0-9_-]+[.][A-Za-z0-9_-]+[.][A-Za-z0-9_-]*$';
+UPDATE blacklisted_tokens
+SET jti = JSON_UNQUOTE(JSON_EXTRACT(CONVERT(jwt_payload USING utf8mb4), '$.jti'))
+WHERE LEFT(jwt_payload, 1) = '{' AND RIGHT(jwt_payload, 1) = '}'
+  AND JSON_VALID(CONVERT(jwt_payload USING utf8mb4));
+ALTER TABLE blacklisted_tokens DROP COLUMN jwt_payload;
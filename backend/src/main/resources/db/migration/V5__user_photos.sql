@@ -0,0 +1,21 @@
+CREATE TABLE user_photos (
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id      BIGINT       NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    size_bytes   BIGINT       NOT NULL,
+    etag         VARCHAR(64)  NOT NULL,
+    content      LONGBLOB     NOT NULL,
+    updated_at   DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_photos_user UNIQUE (user_id)
+) ENGINE = InnoDB;
+
+INSERT INTO user_photos (user_id, content_type, size_bytes, etag, content, updated_at)
+SELECT u.id, COALESCE(u.photo_type, 'application/octet-stream'), LENGTH(u.photo),
+       SHA2(u.photo, 256), u.photo, NOW(6)
+FROM users u
+WHERE u.photo IS NOT NULL;
+
+ALTER TABLE users
+    DROP COLUMN photo,
+    DROP COLUMN photo_type;
@@ -0,0 +1,11 @@
+-- One row per rendition. Existing photos were never resized; serve the stored bytes for both
+-- renditions until the next upload
+ALTER TABLE user_photos ADD COLUMN variant VARCHAR(16) NOT NULL DEFAULT 'PROFILE' AFTER user_id;
+ALTER TABLE user_photos
+    ALTER variant DROP DEFAULT,
+    ADD CONSTRAINT uk_user_photos_user_variant UNIQUE (user_id, variant),
+    DROP INDEX uk_user_photos_user;
+
+INSERT INTO user_photos (user_id, variant, content_type, size_bytes, etag, content, updated_at)
+SELECT user_id, 'AVATAR', content_type, size_bytes, etag, content, updated_at
+FROM user_photos;
@@ -0,0 +1,5 @@
+-- TokenPurgeService deletes by expiry (and refresh tokens also by revocation) in bounded batches
+CREATE INDEX idx_refresh_tokens_expires ON refresh_tokens (expires_at);
+CREATE INDEX idx_refresh_tokens_revoked ON refresh_tokens (revoked);
+CREATE INDEX idx_blacklisted_tokens_expires ON blacklisted_tokens (expires_at);
+CREATE INDEX idx_password_reset_tokens_expires ON password_reset_tokens (expires_at);
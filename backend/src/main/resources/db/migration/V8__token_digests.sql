@@ -0,0 +1,32 @@
+-- Tokens are stored as lowercase hex SHA-256 (utils.Digests), looked up through a unique key.
+
+-- refresh_tokens
+ALTER TABLE refresh_tokens ADD COLUMN token_hash CHAR(64) NULL;
+UPDATE refresh_tokens SET token_hash = SHA2(token, 256);
+DELETE r1 FROM refresh_tokens r1
+    JOIN refresh_tokens r2 ON r1.token_hash = r2.token_hash AND r1.id > r2.id;
+ALTER TABLE refresh_tokens
+    MODIFY token_hash CHAR(64) NOT NULL,
+    DROP COLUMN token,
+    ADD CONSTRAINT uk_refresh_tokens_hash UNIQUE (token_hash);
+
+-- blacklisted_tokens
+ALTER TABLE blacklisted_tokens ADD COLUMN token_hash CHAR(64) NULL;
+UPDATE blacklisted_tokens SET token_hash = SHA2(token, 256);
+DELETE b1 FROM blacklisted_tokens b1
+    JOIN blacklisted_tokens b2 ON b1.token_hash = b2.token_hash AND b1.id > b2.id;
+ALTER TABLE blacklisted_tokens
+    MODIFY token_hash CHAR(64) NOT NULL,
+    DROP COLUMN token,
+    ADD CONSTRAINT uk_blacklisted_tokens_hash UNIQUE (token_hash);
+
+-- password_reset_tokens
+ALTER TABLE password_reset_tokens ADD COLUMN token_hash CHAR(64) NULL;
+DELETE FROM password_reset_tokens WHERE token IS NULL;
+UPDATE password_reset_tokens SET token_hash = SHA2(token, 256);
+DELETE p1 FROM password_reset_tokens p1
+    JOIN password_reset_tokens p2 ON p1.token_hash = p2.token_hash AND p1.id > p2.id;
+ALTER TABLE password_reset_tokens
+    MODIFY token_hash CHAR(64) NOT NULL,
+    DROP COLUMN token,
+    ADD CONSTRAINT uk_password_reset_tokens_hash UNIQUE (token_hash);
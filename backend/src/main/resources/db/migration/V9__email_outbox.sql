@@ -0,0 +1,14 @@
+CREATE TABLE email_outbox (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    recipient       VARCHAR(255) NOT NULL,
+    subject         VARCHAR(255) NOT NULL,
+    body            TEXT         NOT NULL,
+    status          VARCHAR(16)  NOT NULL,
+    attempts        INT          NOT NULL,
+    next_attempt_at DATETIME(6)  NOT NULL,
+    last_error      VARCHAR(500),
+    created_at      DATETIME(6)  NOT NULL,
+    sent_at         DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_email_outbox_due (status, next_attempt_at)
+) ENGINE = InnoDB;
@@ -0,0 +1,114 @@
+package com.gmrao.expenses.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SchemaIndexValidatorTest {
+
+    // exactly what the migrations create, primary keys left out
+    private static Map<String, List<List<String>>> migratedSchema() {
+        Map<String, List<List<String>>> indexes = new HashMap<>();
+        indexes.put("expenses", List.of(
+                List.of("user_id", "created_at", "id"),
+                List.of("user_id", "expense_date"),
+                List.of("user_id", "category")));
+        indexes.put("expense_rollups", List.of(List.of("user_id", "period_start", "category")));
+        indexes.put("users", List.of(List.of("email"), List.of("username"), List.of("phone")));
+        indexes.put("address_details", List.of(List.of("user_id")));
+        indexes.put("user_photos", List.of(List.of("user_id", "variant")));
+        indexes.put("refresh_tokens", List.of(List.of("token_hash"), List.of("user_id"), List.of("expires_at")));
+        indexes.put("blacklisted_tokens", List.of(List.of("token_hash"), List.of("expires_at")));
+        indexes.put("password_reset_tokens", List.of(List.of("token_hash"), List.of("expires_at")));
+        indexes.put("email_outbox", List.of(List.of("status", "next_attempt_at")));
+        return indexes;
+    }
+
+    @Test
+    void acceptsTheMigratedSchema() {
+        assertThat(SchemaIndexValidator.missing(migratedSchema())).isEmpty();
+    }
+
+    @Test
+    void aWiderIndexCoversANarrowerRequirement() {
+        Map<String, List<List<String>>> indexes = migratedSchema();
+        indexes.put("address_details", List.of(List.of("user_id", "country_id", "state_id")));
+        indexes.put("email_outbox", List.of(List.of("status", "next_attempt_at", "id")));
+
+        assertThat(SchemaIndexValidator.missing(indexes)).isEmpty();
+    }
+
+    @Test
+    void onlyLeadingColumnsCount() {
+        Map<String, List<List<String>>> indexes = migratedSchema();
+        // user_id second cannot serve a lookup by user_id
+        indexes.put("address_details", List.of(List.of("country_id", "user_id")));
+        // the right columns in the wrong order do not serve the keyset listing
+        indexes.put("expenses", List.of(
+                List.of("user_id", "id", "created_at"),
+                List.of("user_id", "expense_date"),
+                List.of("user_id", "category")));
+
+        assertThat(SchemaIndexValidator.missing(indexes)).containsExactly(
+                "expenses(user_id, created_at, id) for keyset listing",
+                "address_details(user_id) for profile read");
+    }
+
+    @Test
+    void aNarrowerIndexDoesNotCoverAWiderRequirement() {
+        Map<String, List<List<String>>> indexes = migratedSchema();
+        indexes.put("user_photos", List.of(List.of("user_id")));
+
+        assertThat(SchemaIndexValidator.missing(indexes)).containsExactly("user_photos(user_id, variant) for photo read");
+    }
+
+    @Test
+    void indexesOnOtherTablesDoNotCount() {
+        Map<String, List<List<String>>> indexes = migratedSchema();
+        indexes.remove("refresh_tokens");
+
+        assertThat(SchemaIndexValidator.missing(indexes)).containsExactly(
+                "refresh_tokens(token_hash) for refresh token lookup",
+                "refresh_tokens(user_id) for revoke on logout",
+                "refresh_tokens(expires_at) for token purge");
+    }
+
+    @Test
+    void failModeAbortsStartupWhenIndexesAreMissing() {
+        // the mocked query reports no indexes at all
+        SchemaIndexValidator validator = new SchemaIndexValidator(mock(JdbcTemplate.class), "fail");
+
+        assertThatThrownBy(() -> validator.run(null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Missing indexes: expenses(user_id, created_at, id) for keyset listing;");
+    }
+
+    @Test
+    void warnModeOnlyLogs() {
+        SchemaIndexValidator validator = new SchemaIndexValidator(mock(JdbcTemplate.class), "warn");
+
+        assertThatCode(() -> validator.run(null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void offModeSkipsTheQuery() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+
+        new SchemaIndexValidator(jdbc, "OFF").run(null);
+
+        verify(jdbc, never()).query(anyString(), any(RowCallbackHandler.class));
+    }
+}
@@ -0,0 +1,82 @@
+package com.gmrao.expenses.service;
+
+import com.gmrao.expenses.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static com.gmrao.expenses.service.AuthRateLimiter.Action.LOGIN;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// LOGIN allows 5 attempts per identity and 30 per address before it refills
+class AuthRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AuthRateLimiter limiter = new AuthRateLimiter(meterRegistry, true, 16, 10_000);
+
+    @Test
+    void rejectsAnIdentityAfterItsBurstWithRetryAfter() {
+        for (int i = 0; i < 5; i++) {
+            limiter.check(LOGIN, "ann@example.com", "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> limiter.check(LOGIN, "ann@example.com", "10.0.0.1"))
+                .isInstanceOfSatisfying(TooManyRequestsException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isBetween(1L, 13L));
+        assertThat(meterRegistry.counter("auth.rate_limited", "action", "LOGIN").count()).isEqualTo(1);
+    }
+
+    @Test
+    void identityIsCaseAndWhitespaceInsensitive() {
+        for (int i = 0; i < 5; i++) {
+            limiter.check(LOGIN, "Ann@Example.com ", "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> limiter.check(LOGIN, "ann@example.com", "10.0.0.2"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void attemptsRejectedByTheAddressDoNotDrainTheIdentity() {
+        for (int i = 0; i < 30; i++) {
+            limiter.check(LOGIN, "user" + i + "@example.com", "10.0.0.1");
+        }
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> limiter.check(LOGIN, "victim@example.com", "10.0.0.1"))
+                    .isInstanceOf(TooManyRequestsException.class);
+        }
+
+        // the owner, from their own address, still has the full burst
+        for (int i = 0; i < 5; i++) {
+            assertThatCode(() -> limiter.check(LOGIN, "victim@example.com", "10.0.0.2")).doesNotThrowAnyException();
+        }
+    }
+
+    @Test
+    void attemptsRejectedByTheIdentityDoNotDrainTheAddress() {
+        for (int i = 0; i < 5; i++) {
+            limiter.check(LOGIN, "ann@example.com", "10.0.0.1");
+        }
+        for (int i = 0; i < 20; i++) {
+            assertThatThrownBy(() -> limiter.check(LOGIN, "ann@example.com", "10.0.0.1"))
+                    .isInstanceOf(TooManyRequestsException.class);
+        }
+
+        for (int i = 0; i < 25; i++) {
+            String identity = "user" + i + "@example.com";
+            assertThatCode(() -> limiter.check(LOGIN, identity, "10.0.0.1")).doesNotThrowAnyException();
+        }
+        assertThatThrownBy(() -> limiter.check(LOGIN, "one-more@example.com", "10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void disabledLimiterNeverRejects() {
+        AuthRateLimiter disabled = new AuthRateLimiter(meterRegistry, false, 16, 10_000);
+
+        for (int i = 0; i < 100; i++) {
+            disabled.check(LOGIN, "ann@example.com", "10.0.0.1");
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.gmrao.expenses.service;
+
+import com.gmrao.expenses.entity.EmailOutbox;
+import com.gmrao.expenses.entity.PasswordResetTokens;
+import com.gmrao.expenses.enums.OutboxStatus;
+import com.gmrao.expenses.repository.EmailOutboxRepository;
+import com.gmrao.expenses.repository.ResetPasswordTokenRepository;
+import com.gmrao.expenses.support.EmbeddedMariaDb;
+import com.gmrao.expenses.utils.Digests;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.Message;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The reset-mail outbox against a real MariaDB (the claim query relies on FOR UPDATE SKIP LOCKED)
+ * and a GreenMail SMTP server, both inside the test JVM.
+ */
+@SpringBootTest(properties = {
+        "spring.mail.username=support@expenses.test",
+        "spring.mail.password=unused",
+        "expenses.mail-outbox.body-key=Sfzs4TCmxhWjzg28hUMqCp1nhSR2e0ZShm7vIi625PU=",
+        "spring.jpa.show-sql=false",
+        "expenses.mail-outbox.batch-size=5",
+        "expenses.mail-outbox.max-attempts=3",
+        "expenses.mail-outbox.initial-backoff=30s",
+        "expenses.mail-outbox.max-backoff=1h",
+        // drains only happen when a test or a commit asks for one
+        "expenses.mail-outbox.poll-interval=PT1H"
+})
+class EmailOutboxIntegrationTest {
+
+    private static final String BOUNCING = "bounce@example.com";
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedMariaDb.register(registry);
+    }
+
+    @TestConfiguration
+    static class MailConfig {
+        @Bean
+        RecipientFailingMailSender mailSender() {
+            RecipientFailingMailSender sender = new RecipientFailingMailSender();
+            sender.setHost("localhost");
+            sender.setPort(ServerSetupTest.SMTP.getPort());
+            return sender;
+        }
+    }
+
+    /**
+     * Sends through GreenMail, except to addresses told to fail, which are reported back as
+     * per-message failures the way JavaMailSenderImpl reports a rejected recipient.
+     */
+    static class RecipientFailingMailSender extends JavaMailSenderImpl {
+        final Set<String> failing = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void send(SimpleMailMessage... messages) {
+            List<SimpleMailMessage> deliverable = new ArrayList<>();
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            for (SimpleMailMessage message : messages) {
+                if (failing.contains(message.getTo()[0])) {
+                    failed.put(message, new IllegalStateException("550 mailbox unavailable"));
+                } else {
+                    deliverable.add(message);
+                }
+            }
+            if (!deliverable.isEmpty()) {
+                super.send(deliverable.toArray(new SimpleMailMessage[0]));
+            }
+            if (!failed.isEmpty()) {
+                throw new MailSendException(failed);
+            }
+        }
+    }
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private EmailOutboxWorker worker;
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+    @Autowired
+    private ResetPasswordTokenRepository resetRepository;
+    @Autowired
+    private RecipientFailingMailSender mailSender;
+    @Autowired
+    private MailBodyCipher bodyCipher;
+    @Autowired
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void clean() {
+        mailSender.failing.clear();
+        outboxRepository.deleteAll();
+        resetRepository.deleteAll();
+    }
+
+    @Test
+    void forgotPasswordQueuesTokenAndMailTogetherAndDeliversAfterCommit() throws Exception {
+        userService.forgotPassword("ann@example.com");
+
+        List<PasswordResetTokens> tokens = resetRepository.findAll();
+        assertThat(tokens).singleElement().extracting(PasswordResetTokens::getEmail).isEqualTo("ann@example.com");
+        EmailOutbox queued = outboxRepository.findAll().get(0);
+        assertThat(queued.getRecipient()).isEqualTo("ann@example.com");
+
+        // the after-commit wake-up delivers it without a poll
+        assertThat(smtp.waitForIncomingEmail(10_000, 1)).isTrue();
+        MimeMessage received = smtp.getReceivedMessages()[0];
+        assertThat(received.getRecipients(Message.RecipientType.TO)[0].toString()).isEqualTo("ann@example.com");
+        assertThat(received.getSubject()).isEqualTo("Reset Password");
+        String link = GreenMailUtil.getBody(received).lines()
+                .filter(line -> line.contains("reset-password?token=")).findFirst().orElseThrow();
+        assertThat(Digests.sha256Hex(link.substring(link.indexOf("token=") + 6).trim()))
+                .isEqualTo(tokens.get(0).getTokenHash());
+        // the queued row never held the link in the clear, and keeps no body once sent
+        assertThat(queued.getBody()).doesNotContain("reset-password");
+        awaitStatus(queued.getId(), OutboxStatus.SENT);
+        assertThat(outboxRepository.findById(queued.getId()).orElseThrow().getBody()).isEmpty();
+    }
+
+    @Test
+    void forgotPasswordRolledBackLeavesNeitherTokenNorMail() {
+        tx.executeWithoutResult(status -> {
+            userService.forgotPassword("ann@example.com");
+            status.setRollbackOnly();
+        });
+
+        assertThat(resetRepository.count()).isZero();
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(smtp.waitForIncomingEmail(1_000, 1)).isFalse();
+    }
+
+    @Test
+    void drainDeliversEveryDueMailInBatches() {
+        List<Long> ids = queue(12, i -> "user" + i + "@example.com");
+
+        worker.drain();
+
+        assertThat(smtp.getReceivedMessages()).hasSize(12);
+        for (Long id : ids) {
+            EmailOutbox mail = outboxRepository.findById(id).orElseThrow();
+            assertThat(mail.getStatus()).isEqualTo(OutboxStatus.SENT);
+            assertThat(mail.getSentAt()).isNotNull();
+            assertThat(mail.getAttempts()).isEqualTo(1);
+            assertThat(mail.getBody()).isEmpty();
+        }
+    }
+
+    @Test
+    void drainLeavesMailThatIsNotYetDue() {
+        EmailOutbox later = mail("later@example.com");
+        later.setNextAttemptAt(LocalDateTime.now().plusMinutes(10));
+        later = outboxRepository.save(later);
+
+        worker.drain();
+
+        assertThat(smtp.getReceivedMessages()).isEmpty();
+        assertThat(outboxRepository.findById(later.getId()).orElseThrow().getAttempts()).isZero();
+    }
+
+    @Test
+    void failedMessageIsRescheduledWithDoublingBackoffWhileTheRestGoOut() {
+        mailSender.failing.add(BOUNCING);
+        Long ok1 = outboxRepository.save(mail("ok1@example.com")).getId();
+        Long bounce = outboxRepository.save(mail(BOUNCING)).getId();
+        Long ok2 = outboxRepository.save(mail("ok2@example.com")).getId();
+
+        LocalDateTime before = now();
+        worker.drain();
+        LocalDateTime after = LocalDateTime.now();
+
+        assertThat(smtp.getReceivedMessages()).hasSize(2);
+        assertThat(outboxRepository.findById(ok1).orElseThrow().getStatus()).isEqualTo(OutboxStatus.SENT);
+        assertThat(outboxRepository.findById(ok2).orElseThrow().getStatus()).isEqualTo(OutboxStatus.SENT);
+        EmailOutbox failed = outboxRepository.findById(bounce).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).contains("550");
+        assertThat(failed.getNextAttemptAt()).isBetween(before.plusSeconds(30), after.plusSeconds(30));
+        assertThat(bodyCipher.decrypt(failed.getBody())).as("kept for the retry").isEqualTo("Hello");
+
+        makeDue(bounce);
+        before = now();
+        worker.drain();
+        after = LocalDateTime.now();
+
+        failed = outboxRepository.findById(bounce).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(failed.getAttempts()).isEqualTo(2);
+        assertThat(failed.getNextAttemptAt()).isBetween(before.plusSeconds(60), after.plusSeconds(60));
+    }
+
+    @Test
+    void mailIsMarkedFailedOnceMaxAttemptsAreUsedUp() {
+        mailSender.failing.add(BOUNCING);
+        Long bounce = outboxRepository.save(mail(BOUNCING)).getId();
+
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            worker.drain();
+            makeDue(bounce);
+        }
+
+        EmailOutbox mail = outboxRepository.findById(bounce).orElseThrow();
+        assertThat(mail.getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(mail.getAttempts()).isEqualTo(3);
+        assertThat(mail.getLastError()).contains("550");
+        assertThat(mail.getBody()).isEmpty();
+
+        // a FAILED row is never claimed again
+        worker.drain();
+        assertThat(outboxRepository.findById(bounce).orElseThrow().getAttempts()).isEqualTo(3);
+        assertThat(smtp.getReceivedMessages()).isEmpty();
+    }
+
+    @Test
+    void mailThatCannotBeDecryptedIsFailedWithoutSending() {
+        EmailOutbox plaintext = mail("old@example.com");
+        plaintext.setBody("Hello");
+        Long id = outboxRepository.save(plaintext).getId();
+
+        worker.drain();
+
+        EmailOutbox mail = outboxRepository.findById(id).orElseThrow();
+        assertThat(mail.getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(mail.getAttempts()).isEqualTo(1);
+        assertThat(mail.getLastError()).contains("cannot be decrypted");
+        assertThat(mail.getBody()).isEmpty();
+        assertThat(smtp.getReceivedMessages()).isEmpty();
+    }
+
+    @Test
+    void claimSkipsRowsAnotherTransactionHoldsLocked() throws Exception {
+        List<Long> ids = queue(4, i -> "held" + i + "@example.com");
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService holder = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Long>> held = holder.submit(() -> tx.execute(status -> {
+                List<Long> claimed = outboxRepository.lockDue(LocalDateTime.now(), 2).stream()
+                        .map(EmailOutbox::getId).toList();
+                locked.countDown();
+                await(release);
+                return claimed;
+            }));
+            assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+            List<Long> mine = tx.execute(status -> outboxRepository.lockDue(LocalDateTime.now(), 10).stream()
+                    .map(EmailOutbox::getId).toList());
+            release.countDown();
+
+            List<Long> theirs = held.get(10, TimeUnit.SECONDS);
+            assertThat(theirs).hasSize(2);
+            assertThat(mine).hasSize(2).doesNotContainAnyElementsOf(theirs);
+            assertThat(new HashSet<>(union(mine, theirs))).containsExactlyInAnyOrderElementsOf(ids);
+        } finally {
+            release.countDown();
+            holder.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentDrainsSendEveryMailExactlyOnce() throws Exception {
+        int count = 60;
+        queue(count, i -> "crowd" + i + "@example.com");
+        int drains = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(drains);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < drains; i++) {
+                running.add(pool.submit(() -> {
+                    await(start);
+                    worker.drain();
+                }));
+            }
+            start.countDown();
+            for (Future<?> drain : running) {
+                drain.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<String> recipients = new ArrayList<>();
+        for (MimeMessage message : smtp.getReceivedMessages()) {
+            recipients.add(message.getRecipients(Message.RecipientType.TO)[0].toString());
+        }
+        assertThat(recipients).hasSize(count).doesNotHaveDuplicates();
+        assertThat(outboxRepository.findAll()).allSatisfy(mail -> {
+            assertThat(mail.getStatus()).isEqualTo(OutboxStatus.SENT);
+            assertThat(mail.getAttempts()).isEqualTo(1);
+        });
+    }
+
+    private List<Long> queue(int count, java.util.function.IntFunction<String> recipient) {
+        List<EmailOutbox> mails = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            mails.add(mail(recipient.apply(i)));
+        }
+        return outboxRepository.saveAll(mails).stream().map(EmailOutbox::getId).toList();
+    }
+
+    // MySQL Connector/J takes MariaDB for a 5.5 server and drops fractional seconds when binding
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private EmailOutbox mail(String recipient) {
+        EmailOutbox mail = new EmailOutbox();
+        mail.setRecipient(recipient);
+        mail.setSubject("Reset Password");
+        mail.setBody(bodyCipher.encrypt("Hello"));
+        mail.setCreatedAt(LocalDateTime.now());
+        mail.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        return mail;
+    }
+
+    private void makeDue(Long id) {
+        tx.executeWithoutResult(status -> outboxRepository.reschedule(id, LocalDateTime.now().minusSeconds(1),
+                outboxRepository.findById(id).orElseThrow().getLastError()));
+    }
+
+    private void awaitStatus(Long id, OutboxStatus expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (outboxRepository.findById(id).orElseThrow().getStatus() != expected) {
+            assertThat(System.nanoTime()).as("mail %d to reach %s", id, expected).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Long> union(List<Long> a, List<Long> b) {
+        List<Long> all = new ArrayList<>(a);
+        all.addAll(b);
+        return all;
+    }
+}
@@ -0,0 +1,124 @@
+package com.gmrao.expenses.service;
+
+import com.gmrao.expenses.entity.Expense;
+import com.gmrao.expenses.enums.Category;
+import com.gmrao.expenses.repository.ExpenseRepository;
+import com.gmrao.expenses.repository.ExpenseRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ExpenseRollupServiceTest {
+
+    private static final LocalDate MARCH = LocalDate.of(2024, 3, 1);
+    private static final LocalDate APRIL = LocalDate.of(2024, 4, 1);
+
+    private ExpenseRollupRepository rollupRepo;
+    private ExpenseRepository expenseRepo;
+    private ExpenseRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        rollupRepo = mock(ExpenseRollupRepository.class);
+        expenseRepo = mock(ExpenseRepository.class);
+        service = new ExpenseRollupService(rollupRepo, expenseRepo, mock(TransactionTemplate.class),
+                mock(AnalyticsCache.class), mock(ExpenseVersions.class), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void aRebuildThatFailsToStartCanBeRetried() throws Exception {
+        when(expenseRepo.findDistinctUserIds())
+                .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenReturn(List.of());
+
+        assertThatThrownBy(service::rebuildAll).isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(service.isRebuilding()).isFalse();
+
+        CompletableFuture<Integer> retry = service.rebuildAll();
+        assertThat(retry).isNotNull();
+        assertThat(retry.get(10, TimeUnit.SECONDS)).isZero();
+        assertThat(service.isRebuilding()).isFalse();
+    }
+
+    @Test
+    void foldsExpensesInTheSameBucketIntoOneUpsert() {
+        service.applyAll(List.of(), List.of(
+                expense(1L, "2024-03-02", Category.FOOD, "10.50"),
+                expense(1L, "2024-03-28", Category.FOOD, "4.25"),
+                expense(1L, "2024-03-15", Category.FOOD, "0.25")));
+
+        verify(rollupRepo).applyDelta(1L, MARCH, "FOOD", new BigDecimal("15.00"), 3);
+        verifyNoMoreInteractions(rollupRepo);
+    }
+
+    @Test
+    void keepsMonthsCategoriesAndUsersApart() {
+        service.applyAll(List.of(), List.of(
+                expense(1L, "2024-03-31", Category.FOOD, "1.00"),
+                expense(1L, "2024-04-01", Category.FOOD, "2.00"),
+                expense(1L, "2024-03-10", Category.HEALTH, "3.00"),
+                expense(2L, "2024-03-10", Category.FOOD, "4.00")));
+
+        verify(rollupRepo).applyDelta(1L, MARCH, "FOOD", new BigDecimal("1.00"), 1);
+        verify(rollupRepo).applyDelta(1L, APRIL, "FOOD", new BigDecimal("2.00"), 1);
+        verify(rollupRepo).applyDelta(1L, MARCH, "HEALTH", new BigDecimal("3.00"), 1);
+        verify(rollupRepo).applyDelta(2L, MARCH, "FOOD", new BigDecimal("4.00"), 1);
+        verifyNoMoreInteractions(rollupRepo);
+    }
+
+    @Test
+    void skipsABucketWhoseChangesCancelOut() {
+        // an update that changes only the title removes and re-adds the same amount in the same bucket
+        service.applyAll(List.of(expense(1L, "2024-03-05", Category.FOOD, "9.99")),
+                List.of(expense(1L, "2024-03-05", Category.FOOD, "9.99")));
+
+        verifyNoInteractions(rollupRepo);
+    }
+
+    @Test
+    void appliesAnAmountChangeWithinABucketWithoutDroppingIt() {
+        service.applyAll(List.of(expense(1L, "2024-03-05", Category.FOOD, "10.00")),
+                List.of(expense(1L, "2024-03-20", Category.FOOD, "12.50")));
+
+        verify(rollupRepo).applyDelta(1L, MARCH, "FOOD", new BigDecimal("2.50"), 0);
+        verify(rollupRepo, never()).deleteEmpty(anyLong(), any(), anyString());
+    }
+
+    @Test
+    void dropsEmptiedBucketsOnlyWhereTheCountFell() {
+        service.applyAll(List.of(expense(1L, "2024-03-05", Category.FOOD, "10.00")),
+                List.of(expense(1L, "2024-04-05", Category.FOOD, "10.00")));
+
+        verify(rollupRepo).applyDelta(1L, MARCH, "FOOD", new BigDecimal("-10.00"), -1);
+        verify(rollupRepo).deleteEmpty(1L, MARCH, "FOOD");
+        verify(rollupRepo).applyDelta(1L, APRIL, "FOOD", new BigDecimal("10.00"), 1);
+        verify(rollupRepo, never()).deleteEmpty(1L, APRIL, "FOOD");
+    }
+
+    private static Expense expense(Long userId, String date, Category category, String amount) {
+        Expense e = new Expense();
+        e.setUserId(userId);
+        e.setDate(LocalDate.parse(date));
+        e.setCategory(category);
+        e.setAmount(new BigDecimal(amount));
+        return e;
+    }
+}
@@ -0,0 +1,54 @@
+package com.gmrao.expenses.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MailBodyCipherTest {
+
+    private static final String KEY = "Sfzs4TCmxhWjzg28hUMqCp1nhSR2e0ZShm7vIi625PU=";
+    private static final String BODY = "Use the link below to reset your password:\nhttp://localhost:5173/reset-password?token=abc";
+
+    private final MailBodyCipher cipher = new MailBodyCipher(KEY);
+
+    @Test
+    void roundTripsWithoutLeakingThePlaintext() {
+        String stored = cipher.encrypt(BODY);
+
+        assertThat(stored).doesNotContain("reset-password").doesNotContain("token");
+        assertThat(cipher.decrypt(stored)).isEqualTo(BODY);
+    }
+
+    @Test
+    void usesAFreshIvForEveryBody() {
+        assertThat(cipher.encrypt(BODY)).isNotEqualTo(cipher.encrypt(BODY));
+    }
+
+    @Test
+    void rejectsAlteredCiphertext() {
+        byte[] stored = Base64.getDecoder().decode(cipher.encrypt(BODY));
+        stored[stored.length - 1] ^= 1;
+
+        assertThatThrownBy(() -> cipher.decrypt(Base64.getEncoder().encodeToString(stored)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsBodiesFromAnotherKeyAndPlaintext() {
+        MailBodyCipher other = new MailBodyCipher("AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=");
+
+        assertThatThrownBy(() -> other.decrypt(cipher.encrypt(BODY))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cipher.decrypt("Hello")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cipher.decrypt("")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void refusesKeysThatAreNotAesSized() {
+        assertThatThrownBy(() -> new MailBodyCipher("c2hvcnQ="))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("16, 24 or 32 bytes");
+    }
+}
@@ -0,0 +1,68 @@
+package com.gmrao.expenses.service;
+
+import com.gmrao.expenses.exceptions.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHasherTest {
+
+    private final PasswordEncoder encoder = mock(PasswordEncoder.class);
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final PasswordHasher hasher = new PasswordHasher(encoder, meters, 10, 1, 4, Duration.ofMillis(200));
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        Thread.interrupted();
+        hasher.shutdown();
+    }
+
+    @Test
+    void recordsSuccess() {
+        when(encoder.encode("secret")).thenReturn("hash");
+
+        assertThat(hasher.encode("secret")).isEqualTo("hash");
+
+        assertThat(count("encode", "success")).isEqualTo(1);
+    }
+
+    @Test
+    void recordsTimeout() {
+        when(encoder.matches("secret", "hash")).thenAnswer(inv -> release.await(10, TimeUnit.SECONDS));
+
+        assertThatThrownBy(() -> hasher.matches("secret", "hash"))
+                .isInstanceOf(PasswordHashingUnavailableException.class);
+
+        assertThat(count("verify", "timeout")).isEqualTo(1);
+    }
+
+    @Test
+    void recordsAnInterruptedCallAndKeepsTheInterrupt() {
+        when(encoder.matches("secret", "hash")).thenAnswer(inv -> release.await(10, TimeUnit.SECONDS));
+        Thread.currentThread().interrupt();
+
+        assertThatThrownBy(() -> hasher.matches("secret", "hash"))
+                .isInstanceOf(PasswordHashingUnavailableException.class)
+                .hasMessageContaining("interrupted");
+
+        assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        assertThat(count("verify", "interrupted")).isEqualTo(1);
+    }
+
+    private long count(String op, String outcome) {
+        var timer = meters.find("auth.password.hashing").tag("op", op).tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
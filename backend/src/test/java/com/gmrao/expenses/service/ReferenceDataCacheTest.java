@@ -0,0 +1,112 @@
+package com.gmrao.expenses.service;
+
+import com.gmrao.expenses.entity.Country;
+import com.gmrao.expenses.entity.Roles;
+import com.gmrao.expenses.entity.State;
+import com.gmrao.expenses.models.Countries;
+import com.gmrao.expenses.models.States;
+import com.gmrao.expenses.repository.CountryRepository;
+import com.gmrao.expenses.repository.RolesRepository;
+import com.gmrao.expenses.repository.StateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReferenceDataCacheTest {
+
+    private static final long INDIA = 1L;
+    private static final long USA = 2L;
+
+    private CountryRepository countryRepository;
+    private StateRepository stateRepository;
+    private RolesRepository rolesRepository;
+    private ReferenceDataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        countryRepository = mock(CountryRepository.class);
+        stateRepository = mock(StateRepository.class);
+        rolesRepository = mock(RolesRepository.class);
+        when(countryRepository.findAll()).thenReturn(List.of(
+                new Country(INDIA, "India", "IN", "IND"),
+                new Country(USA, "United States", "US", "USA")));
+        when(stateRepository.findAll()).thenReturn(List.of(
+                new State(10L, "Goa", INDIA),
+                new State(11L, "Kerala", INDIA),
+                // the same name in another country is a different state
+                new State(20L, "Georgia", USA),
+                new State(30L, "Orphan", null)));
+        when(rolesRepository.findAll()).thenReturn(List.of(new Roles(1L, "ADMIN"), new Roles(2L, "USER")));
+        cache = new ReferenceDataCache(countryRepository, stateRepository, rolesRepository);
+        cache.reload();
+    }
+
+    @Test
+    void servesTheLoadedSnapshot() {
+        assertThat(cache.countries()).containsExactly(new Countries(INDIA, "India"), new Countries(USA, "United States"));
+        assertThat(cache.states(INDIA)).containsExactly(new States(10L, "Goa"), new States(11L, "Kerala"));
+        assertThat(cache.countryName(USA)).isEqualTo("United States");
+        assertThat(cache.stateName(20L)).isEqualTo("Georgia");
+        assertThat(cache.roleId("USER")).isEqualTo(2L);
+        assertThat(cache.counts()).isEqualTo(Map.of("countries", 2, "states", 3, "roles", 2));
+    }
+
+    @Test
+    void answersUnknownAndNullIdsWithoutFailing() {
+        assertThat(cache.states(null)).isEmpty();
+        assertThat(cache.states(99L)).isEmpty();
+        assertThat(cache.countryName(null)).isNull();
+        assertThat(cache.countryName(99L)).isNull();
+        assertThat(cache.stateName(30L)).as("states without a country are skipped").isNull();
+        assertThat(cache.roleId("AUDITOR")).isNull();
+    }
+
+    @Test
+    void listsAreReadOnly() {
+        assertThatThrownBy(() -> cache.states(INDIA).add(new States(12L, "Sikkim")))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> cache.countries().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void acceptsAStateOnlyWithinItsOwnCountry() {
+        assertThat(cache.isStateOf(INDIA, 10L)).isTrue();
+        assertThat(cache.isStateOf(USA, 10L)).isFalse();
+        assertThat(cache.isStateOf(INDIA, 99L)).isFalse();
+        assertThat(cache.isStateOf(99L, 10L)).isFalse();
+        assertThat(cache.isStateOf(null, 10L)).isFalse();
+        assertThat(cache.isStateOf(INDIA, null)).isFalse();
+    }
+
+    @Test
+    void etagIsAQuotedDigestOfTheContent() {
+        ReferenceDataCache other = new ReferenceDataCache(countryRepository, stateRepository, rolesRepository);
+        other.reload();
+
+        assertThat(cache.etag()).matches("\"[0-9a-f]{32}\"");
+        assertThat(other.etag()).as("same data, same validator on every instance").isEqualTo(cache.etag());
+    }
+
+    @Test
+    void reloadSwapsInNewDataAndANewEtag() {
+        String before = cache.etag();
+        when(stateRepository.findAll()).thenReturn(List.of(
+                new State(10L, "Goa", INDIA),
+                new State(11L, "Kerala", INDIA),
+                new State(12L, "Sikkim", INDIA),
+                new State(20L, "Georgia", USA)));
+
+        cache.reload();
+
+        assertThat(cache.states(INDIA)).extracting(States::name).containsExactly("Goa", "Kerala", "Sikkim");
+        assertThat(cache.isStateOf(INDIA, 12L)).isTrue();
+        assertThat(cache.etag()).isNotEqualTo(before);
+    }
+}
@@ -0,0 +1,105 @@
+package com.gmrao.expenses.service;
+
+import com.gmrao.expenses.repository.BlacklistedTokenRepository;
+import com.gmrao.expenses.repository.RefreshTokenRepository;
+import com.gmrao.expenses.repository.ResetPasswordTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TokenPurgeServiceTest {
+
+    private static final int BATCH = 100;
+
+    private BlacklistedTokenRepository blacklistRepo;
+    private RefreshTokenRepository refreshRepo;
+    private ResetPasswordTokenRepository resetRepo;
+    private JdbcTemplate jdbc;
+    private SimpleMeterRegistry meters;
+    private TokenPurgeService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        blacklistRepo = mock(BlacklistedTokenRepository.class);
+        refreshRepo = mock(RefreshTokenRepository.class);
+        resetRepo = mock(ResetPasswordTokenRepository.class);
+        jdbc = mock(JdbcTemplate.class);
+        TransactionTemplate tx = mock(TransactionTemplate.class);
+        when(tx.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+        meters = new SimpleMeterRegistry();
+        service = new TokenPurgeService(blacklistRepo, refreshRepo, resetRepo, tx, jdbc, meters, BATCH, 10, Duration.ZERO);
+    }
+
+    @Test
+    void deletesInBatchesUntilOneComesBackShort() {
+        when(blacklistRepo.deleteExpired(any(OffsetDateTime.class), eq(BATCH))).thenReturn(BATCH, BATCH, 7);
+        when(refreshRepo.deleteExpired(any(OffsetDateTime.class), eq(BATCH))).thenReturn(3);
+        when(refreshRepo.deleteRevoked(BATCH)).thenReturn(BATCH, 0);
+        when(resetRepo.deleteExpired(any(LocalDateTime.class), eq(BATCH))).thenReturn(0);
+
+        service.purge();
+
+        verify(blacklistRepo, times(3)).deleteExpired(any(OffsetDateTime.class), anyInt());
+        verify(refreshRepo, times(2)).deleteRevoked(anyInt());
+        assertThat(purged("blacklisted_tokens")).isEqualTo(207);
+        assertThat(purged("refresh_tokens")).isEqualTo(103);
+        assertThat(purged("password_reset_tokens")).isZero();
+    }
+
+    @Test
+    void stopsAtMaxBatches() {
+        when(blacklistRepo.deleteExpired(any(OffsetDateTime.class), eq(BATCH))).thenReturn(BATCH);
+
+        service.purge();
+
+        verify(blacklistRepo, times(10)).deleteExpired(any(OffsetDateTime.class), anyInt());
+    }
+
+    @Test
+    void rowGaugesComeFromTableStatisticsWithoutCounting() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn("BLACKLISTED_TOKENS", "refresh_tokens", "password_reset_tokens");
+        when(rs.getLong(2)).thenReturn(1_200L, 35L, 0L);
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            for (int i = 0; i < 3; i++) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbc).query(anyString(), any(RowCallbackHandler.class));
+
+        service.purge();
+
+        assertThat(rows("blacklisted_tokens")).isEqualTo(1_200);
+        assertThat(rows("refresh_tokens")).isEqualTo(35);
+        assertThat(rows("password_reset_tokens")).isZero();
+        for (var repo : List.of(blacklistRepo, refreshRepo, resetRepo)) {
+            verify(repo, never()).count();
+        }
+    }
+
+    private double purged(String table) {
+        return meters.get("auth.tokens.purged").tag("table", table).counter().count();
+    }
+
+    private double rows(String table) {
+        return meters.get("auth.tokens.rows").tag("table", table).gauge().value();
+    }
+}
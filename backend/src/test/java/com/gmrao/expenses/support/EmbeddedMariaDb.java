@@ -0,0 +1,65 @@
+package com.gmrao.expenses.support;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+/**
+ * One MariaDB server per test JVM, started on first use on a free port and stopped at exit. Tests
+ * that need the real database (native MySQL queries, FOR UPDATE SKIP LOCKED, the Flyway
+ * migrations) point the application at it with {@link #register}.
+ */
+public final class EmbeddedMariaDb {
+
+    private static final String DATABASE = "expense_tracker";
+
+    private static String url;
+
+    private EmbeddedMariaDb() {
+    }
+
+    public static void register(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", EmbeddedMariaDb::url);
+        registry.add("spring.datasource.username", () -> "root");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    private static synchronized String url() {
+        if (url == null) {
+            url = start();
+        }
+        return url;
+    }
+
+    private static String start() {
+        try {
+            DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder().setPort(0);
+            // mariadbd refuses to run as root unless told to
+            if ("root".equals(System.getProperty("user.name"))) {
+                config.addArg("--user=root");
+            }
+            DB db = DB.newEmbeddedDB(config.build());
+            db.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    db.stop();
+                } catch (Exception e) {
+                    // the JVM is going away either way
+                }
+            }));
+            // created over JDBC: DB.createDB shells out to the mysql client, which needs its native libraries
+            String server = "jdbc:mysql://localhost:" + config.getPort() + "/";
+            try (Connection c = DriverManager.getConnection(server + "mysql", "root", "");
+                 Statement s = c.createStatement()) {
+                s.execute("CREATE DATABASE IF NOT EXISTS " + DATABASE + " CHARACTER SET utf8mb4");
+            }
+            return server + DATABASE + "?rewriteBatchedStatements=true";
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not start the embedded MariaDB server", e);
+        }
+    }
+}
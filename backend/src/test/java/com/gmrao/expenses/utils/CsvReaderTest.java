@@ -0,0 +1,116 @@
+package com.gmrao.expenses.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTest {
+
+    @Test
+    void readsQuotedFieldsWithCommasQuotesAndLineBreaks() throws IOException {
+        List<List<String>> records = readAll(new CsvReader(new StringReader(
+                "title,amount\r\n\"Lunch, team\",12.50\n\"He said \"\"hi\"\"\",1\n\"two\r\nlines\",2\n\nlast,3")));
+
+        assertThat(records).containsExactly(
+                List.of("title", "amount"),
+                List.of("Lunch, team", "12.50"),
+                List.of("He said \"hi\"", "1"),
+                List.of("two\nlines", "2"),
+                List.of(""),
+                List.of("last", "3"));
+    }
+
+    @Test
+    void endsAtTheLastLineBreak() throws IOException {
+        assertThat(readAll(new CsvReader(new StringReader("a,b\n")))).containsExactly(List.of("a", "b"));
+        assertThat(new CsvReader(new StringReader("")).next()).isNull();
+    }
+
+    @Test
+    void acceptsRecordsExactlyAtTheCaps() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("abcd,e\n\"x\ny\",z\n"), 4, 8, 2);
+
+        assertThat(csv.next()).containsExactly("abcd", "e");
+        assertThat(csv.next()).containsExactly("x\ny", "z");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void failsAFieldOverTheCap() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("ok,1\nabcde,1\n"), 4, 100, 10);
+
+        assertThat(csv.next()).containsExactly("ok", "1");
+        assertThatThrownBy(csv::next)
+                .isInstanceOf(CsvReader.LimitExceededException.class)
+                .hasMessage("Field longer than 4 characters");
+    }
+
+    @Test
+    void countsSeparatorsTowardsTheRecordCap() {
+        CsvReader csv = new CsvReader(new StringReader(",".repeat(50) + "\n"), 10, 20, 10);
+
+        assertThatThrownBy(csv::next)
+                .isInstanceOf(CsvReader.LimitExceededException.class)
+                .hasMessage("Record longer than 20 characters");
+    }
+
+    @Test
+    void stopsAtAnUnclosedQuoteInsteadOfReadingToTheEnd() {
+        String tail = "title,1\n".repeat(10_000);
+        CountingReader input = new CountingReader(new StringReader("\"unclosed,1\n" + tail));
+        CsvReader csv = new CsvReader(input, 1_000_000, 1_000_000, 3);
+
+        assertThatThrownBy(csv::next)
+                .isInstanceOf(CsvReader.LimitExceededException.class)
+                .hasMessageContaining("more than 3 lines");
+        // one buffer fill at most, not the whole input
+        assertThat(input.read).isLessThan(tail.length() / 2);
+    }
+
+    @Test
+    void stopsAHugeUnquotedLineAtTheCap() {
+        CountingReader input = new CountingReader(new StringReader("x".repeat(1_000_000)));
+        CsvReader csv = new CsvReader(input, 1_000, 10_000, 10);
+
+        assertThatThrownBy(csv::next).isInstanceOf(CsvReader.LimitExceededException.class);
+        assertThat(input.read).isLessThan(100_000);
+    }
+
+    private static List<List<String>> readAll(CsvReader csv) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        for (List<String> record = csv.next(); record != null; record = csv.next()) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static final class CountingReader extends Reader {
+        private final Reader delegate;
+        private long read;
+
+        private CountingReader(Reader delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int n = delegate.read(buffer, offset, length);
+            if (n > 0) {
+                read += n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
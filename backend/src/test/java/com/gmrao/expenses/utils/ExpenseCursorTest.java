@@ -0,0 +1,69 @@
+package com.gmrao.expenses.utils;
+
+import com.gmrao.expenses.entity.Expense;
+import com.gmrao.expenses.exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpenseCursorTest {
+
+    @Test
+    void roundTripsThroughItsEncodedForm() {
+        ExpenseCursor cursor = new ExpenseCursor(3, OffsetDateTime.of(2024, 5, 17, 9, 30, 12, 123_456_000, ZoneOffset.UTC), 42L);
+
+        assertThat(ExpenseCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void decodesTheInstantInUtc() {
+        OffsetDateTime local = OffsetDateTime.of(2024, 1, 1, 12, 0, 0, 0, ZoneOffset.ofHours(5));
+        ExpenseCursor decoded = ExpenseCursor.decode(new ExpenseCursor(1, local, 7L).encode());
+
+        assertThat(decoded.createdAt()).isEqualTo(local.withOffsetSameInstant(ZoneOffset.UTC));
+    }
+
+    @Test
+    void pointsAfterTheLastRowOfAPage() {
+        Expense last = new Expense();
+        last.setId(99L);
+        last.setCreatedAt(OffsetDateTime.of(2024, 2, 29, 23, 59, 59, 0, ZoneOffset.UTC));
+
+        ExpenseCursor cursor = ExpenseCursor.after(2, last);
+
+        assertThat(cursor.page()).isEqualTo(2);
+        assertThat(cursor.id()).isEqualTo(99L);
+        assertThat(cursor.createdAt()).isEqualTo(last.getCreatedAt());
+    }
+
+    @Test
+    void encodesWithoutCharactersThatNeedEscapingInAUrl() {
+        String token = new ExpenseCursor(12, OffsetDateTime.now(ZoneOffset.UTC), Long.MAX_VALUE).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not base64!", "Zm9v", "MXwyMDI0LTAxLTAxVDAwOjAwOjAwWg"})
+    void rejectsMalformedInput(String token) {
+        assertThatThrownBy(() -> ExpenseCursor.decode(token))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void rejectsNonNumericFields() {
+        String token = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("x|2024-01-01T00:00:00Z|1".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> ExpenseCursor.decode(token)).isInstanceOf(BadRequestException.class);
+    }
+}
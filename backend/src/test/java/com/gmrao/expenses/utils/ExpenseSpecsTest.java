@@ -0,0 +1,30 @@
+package com.gmrao.expenses.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpenseSpecsTest {
+
+    @Test
+    void leavesPlainTextAlone() {
+        assertThat(ExpenseSpecs.escapeLike("groceries at the market")).isEqualTo("groceries at the market");
+    }
+
+    @Test
+    void escapesLikeWildcards() {
+        assertThat(ExpenseSpecs.escapeLike("100%")).isEqualTo("100!%");
+        assertThat(ExpenseSpecs.escapeLike("a_b")).isEqualTo("a!_b");
+    }
+
+    @Test
+    void escapesTheEscapeCharacter() {
+        assertThat(ExpenseSpecs.escapeLike("wow!")).isEqualTo("wow!!");
+        assertThat(ExpenseSpecs.escapeLike("!%_")).isEqualTo("!!!%!_");
+    }
+
+    @Test
+    void leavesBackslashesAlone() {
+        assertThat(ExpenseSpecs.escapeLike("c:\\temp")).isEqualTo("c:\\temp");
+    }
+}
@@ -0,0 +1,122 @@
+package com.gmrao.expenses.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketLimiterTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
+    @Test
+    void allowsABurstUpToCapacityThenReportsTheWait() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(4, 100);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("k", 3, MINUTE)).isZero();
+        }
+        long wait = limiter.tryAcquire("k", 3, MINUTE);
+
+        assertThat(wait).isPositive().isLessThanOrEqualTo(MINUTE);
+    }
+
+    @Test
+    void roundsTheStripeCountUpToAPowerOfTwo() {
+        // 3 stripes become 4, and a limit of 4 buckets leaves room for one per stripe
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, 4);
+        for (int i = 0; i < 64; i++) {
+            limiter.tryAcquire("key" + i, 1, MINUTE);
+        }
+
+        assertThat(limiter.size()).isEqualTo(4);
+    }
+
+    @Test
+    void keysHaveTheirOwnBuckets() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 100);
+
+        assertThat(limiter.tryAcquire("a", 1, MINUTE)).isZero();
+        assertThat(limiter.tryAcquire("a", 1, MINUTE)).isPositive();
+        assertThat(limiter.tryAcquire("b", 1, MINUTE)).isZero();
+    }
+
+    @Test
+    void earnsTokensBackOverTime() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(4, 100);
+        long refill = Duration.ofMillis(20).toNanos();
+
+        assertThat(limiter.tryAcquire("k", 1, refill)).isZero();
+        assertThat(limiter.tryAcquire("k", 1, refill)).isPositive();
+        Thread.sleep(40);
+
+        assertThat(limiter.tryAcquire("k", 1, refill)).isZero();
+    }
+
+    @Test
+    void neverRefillsBeyondCapacity() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(4, 100);
+        long refill = Duration.ofMillis(200).toNanos();
+
+        assertThat(limiter.tryAcquire("k", 2, refill)).isZero();
+        assertThat(limiter.tryAcquire("k", 2, refill)).isZero();
+        // long enough to earn five tokens, but the bucket holds two
+        Thread.sleep(1_000);
+
+        assertThat(limiter.tryAcquire("k", 2, refill)).isZero();
+        assertThat(limiter.tryAcquire("k", 2, refill)).isZero();
+        assertThat(limiter.tryAcquire("k", 2, refill)).isPositive();
+    }
+
+    @Test
+    void dropsTheLeastRecentlyUsedBucketBeyondTheLimit() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 2);
+
+        assertThat(limiter.tryAcquire("a", 1, MINUTE)).isZero();
+        assertThat(limiter.tryAcquire("b", 1, MINUTE)).isZero();
+        assertThat(limiter.tryAcquire("c", 1, MINUTE)).isZero();
+
+        assertThat(limiter.size()).isEqualTo(2);
+        // a was dropped, so it starts over full; c is still empty
+        assertThat(limiter.tryAcquire("a", 1, MINUTE)).isZero();
+        assertThat(limiter.tryAcquire("c", 1, MINUTE)).isPositive();
+    }
+
+    @Test
+    void dropsBucketsIdleLongEnoughToHaveRefilled() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 100);
+        long refill = Duration.ofMillis(5).toNanos();
+
+        limiter.tryAcquire("a", 1, refill);
+        limiter.tryAcquire("b", 1, refill);
+        limiter.tryAcquire("c", 1, MINUTE);
+        Thread.sleep(30);
+        limiter.tryAcquire("d", 1, MINUTE);
+
+        // a and b were full again and went; c is still refilling and stays
+        assertThat(limiter.size()).isEqualTo(2);
+        assertThat(limiter.tryAcquire("c", 1, MINUTE)).isPositive();
+    }
+
+    @Test
+    void refundGivesBackOneTokenUpToCapacity() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(4, 100);
+
+        assertThat(limiter.tryAcquire("k", 1, MINUTE)).isZero();
+        limiter.refund("k", 1);
+        limiter.refund("k", 1);
+
+        assertThat(limiter.tryAcquire("k", 1, MINUTE)).isZero();
+        assertThat(limiter.tryAcquire("k", 1, MINUTE)).isPositive();
+    }
+
+    @Test
+    void refundOfAnUnknownKeyCreatesNoBucket() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(4, 100);
+
+        limiter.refund("missing", 1);
+
+        assertThat(limiter.size()).isZero();
+    }
+}
@@ -0,0 +1,46 @@
+package com.gmrao.expenses.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Runs the benchmarks with JMH's own command line and, unless -rf/-rff are given, writes the
+ * results as JSON to ${bench.results-dir}/${bench.label}.json. The label defaults to a timestamp;
+ * pass the commit id so runs of two commits land side by side.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams() || cli.shouldListProfilers()
+                || cli.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (!cli.getResultFormat().hasValue() && !cli.getResult().hasValue()) {
+            String label = System.getProperty("bench.label",
+                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+            Path dir = Path.of(System.getProperty("bench.results-dir", "benchmarks/results"));
+            Files.createDirectories(dir);
+            Path file = dir.resolve(label + ".json");
+            options.resultFormat(ResultFormatType.JSON).result(file.toString());
+            System.out.println("Writing results to " + file.toAbsolutePath());
+        }
+        new Runner(options.build()).run();
+    }
+}
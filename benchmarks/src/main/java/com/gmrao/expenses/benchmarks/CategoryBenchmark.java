@@ -0,0 +1,27 @@
+package com.gmrao.expenses.benchmarks;
+
+import com.gmrao.expenses.enums.Category;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Category label lookup, run for every imported CSV row and every create/update request. The
+ * label decides how far the scan over values() goes; an unknown label scans them all.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CategoryBenchmark {
+
+    @Param({"General", "Other", "Unknown"})
+    public String label;
+
+    @Benchmark
+    public Category getCategory() {
+        return Category.getCategory(label);
+    }
+}
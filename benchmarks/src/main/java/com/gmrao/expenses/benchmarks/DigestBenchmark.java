@@ -0,0 +1,49 @@
+package com.gmrao.expenses.benchmarks;
+
+import com.gmrao.expenses.utils.Digests;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SHA-256 digests: the photo etag computed for every stored rendition (the byte[] handling that
+ * replaced the old per-byte photo conversion) and the token digest taken on every refresh,
+ * logout and reset lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DigestBenchmark {
+
+    private String token = "eyJhbGciOiJIUzI1NiJ9." + "x".repeat(220) + "." + "s".repeat(43);
+
+    @State(Scope.Benchmark)
+    public static class Photo {
+
+        // roughly an AVATAR and a PROFILE JPEG rendition
+        @Param({"8192", "131072"})
+        public int photoBytes;
+
+        private byte[] content;
+
+        @Setup
+        public void setUp() {
+            content = new byte[photoBytes];
+            new Random(42).nextBytes(content);
+        }
+    }
+
+    @Benchmark
+    public String photoEtag(Photo photo) {
+        return Digests.sha256Hex(photo.content);
+    }
+
+    @Benchmark
+    public String tokenHash() {
+        return Digests.sha256Hex(token);
+    }
+}
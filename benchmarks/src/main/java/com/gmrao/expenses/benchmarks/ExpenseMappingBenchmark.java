@@ -0,0 +1,35 @@
+package com.gmrao.expenses.benchmarks;
+
+import com.gmrao.expenses.entity.Expense;
+import com.gmrao.expenses.models.ExpenseResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response mapping of one listing page, as ExpenseService.listPage and search do it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExpenseMappingBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private List<Expense> page;
+
+    @Setup
+    public void setUp() {
+        page = Fixtures.expenses(pageSize);
+    }
+
+    @Benchmark
+    public List<ExpenseResponse> mapPage() {
+        return page.stream().map(ExpenseResponse::from).toList();
+    }
+}
@@ -0,0 +1,122 @@
+package com.gmrao.expenses.benchmarks;
+
+import com.gmrao.expenses.entity.Expense;
+import com.gmrao.expenses.enums.Category;
+import com.gmrao.expenses.enums.PhotoVariant;
+import com.gmrao.expenses.models.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.OffsetDateTime;
+import java.time.format.TextStyle;
+import java.util.*;
+
+/**
+ * Deterministic sample data shaped like what the repositories hand back, so runs on different
+ * commits measure the same input.
+ */
+final class Fixtures {
+
+    private static final Category[] CATEGORIES = Category.values();
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    private Fixtures() {
+    }
+
+    static List<Expense> expenses(int count) {
+        List<Expense> expenses = new ArrayList<>(count);
+        OffsetDateTime createdAt = OffsetDateTime.parse("2025-06-30T12:00:00Z");
+        for (int i = 0; i < count; i++) {
+            Expense e = new Expense();
+            e.setId(1_000L + i);
+            e.setUserId(42L);
+            e.setTitle("Expense " + i);
+            e.setCategory(CATEGORIES[i % CATEGORIES.length]);
+            e.setAmount(amount(i));
+            e.setDate(START.plusDays(i % 365));
+            e.setCreatedAt(createdAt.minusMinutes(i));
+            expenses.add(e);
+        }
+        return expenses;
+    }
+
+    static ExportData exportData(int count) {
+        List<ExportDetails> details = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            details.add(new ExportDetails("Expense " + i, CATEGORIES[i % CATEGORIES.length],
+                    amount(i), START.plusDays(i % 365)));
+        }
+        return new ExportData("Bench User", details);
+    }
+
+    static UserDetailsResponse userDetails() {
+        return UserDetailsResponse.builder()
+                .fullName("Bench User")
+                .userName("bench")
+                .email("bench@example.com")
+                .dateOfBirth(LocalDate.of(1990, 5, 17))
+                .gender("Female")
+                .phone("9876543210")
+                .addressLine1("12 Long Street")
+                .addressLine2("Flat 4")
+                .country("India")
+                .state("Karnataka")
+                .city("Bengaluru")
+                .pincode("560001")
+                .photoUrl(PhotoInfo.url(PhotoVariant.PROFILE, "a".repeat(64)))
+                .avatarUrl(PhotoInfo.url(PhotoVariant.AVATAR, "b".repeat(64)))
+                .countryId(1L)
+                .stateId(12L)
+                .build();
+    }
+
+    // the shapes of ExpenseRollupRepository's native queries: column alias -> value
+    static List<Map<String, Object>> monthlyTotals() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Month month : Month.values()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("month", month.getDisplayName(TextStyle.SHORT, Locale.ENGLISH));
+            row.put("total", amount(month.getValue() * 97));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    static List<Map<String, Object>> categoryTotals() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Category category : CATEGORIES) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("category", category.name());
+            row.put("amount", amount(category.ordinal() * 131));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    static Map<String, Object> summary() {
+        Map<String, Object> highest = new LinkedHashMap<>();
+        highest.put("category", Category.FOOD.name());
+        highest.put("total", amount(977));
+        return Map.of("totalSpent", 48213.75d, "highestCategory", highest, "avgMonthly", 4017.81d);
+    }
+
+    static DashboardResponse dashboard() {
+        List<MonthlyTotal> monthly = new ArrayList<>();
+        for (Month month : Month.values()) {
+            monthly.add(new MonthlyTotal(month.getDisplayName(TextStyle.SHORT, Locale.ENGLISH),
+                    amount(month.getValue() * 97)));
+        }
+        List<CategoryTotal> categories = new ArrayList<>();
+        for (Category category : CATEGORIES) {
+            categories.add(new CategoryTotal(category, amount(category.ordinal() * 131)));
+        }
+        categories.sort(Comparator.comparing(CategoryTotal::total).reversed());
+        return new DashboardResponse(monthly, categories, new BigDecimal("48213.75"), categories.get(0),
+                new BigDecimal("4017.81"));
+    }
+
+    private static BigDecimal amount(int seed) {
+        return BigDecimal.valueOf(100 + (seed * 7919L) % 99_900, 2);
+    }
+}
@@ -0,0 +1,78 @@
+package com.gmrao.expenses.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gmrao.expenses.models.DashboardResponse;
+import com.gmrao.expenses.models.ExportData;
+import com.gmrao.expenses.models.UserDetailsResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response serialization with an ObjectMapper configured the way Spring Boot builds the
+ * application's one. The analytics benchmarks cover what AnalyticsCache.getJson does on a miss.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"1000"})
+    public int exportRows;
+
+    private ObjectMapper objectMapper;
+    private ExportData exportData;
+    private UserDetailsResponse userDetails;
+    private List<Map<String, Object>> monthlyTotals;
+    private List<Map<String, Object>> categoryTotals;
+    private Map<String, Object> summary;
+    private DashboardResponse dashboard;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        exportData = Fixtures.exportData(exportRows);
+        userDetails = Fixtures.userDetails();
+        monthlyTotals = Fixtures.monthlyTotals();
+        categoryTotals = Fixtures.categoryTotals();
+        summary = Fixtures.summary();
+        dashboard = Fixtures.dashboard();
+    }
+
+    @Benchmark
+    public byte[] exportData() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(exportData);
+    }
+
+    @Benchmark
+    public byte[] userDetails() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userDetails);
+    }
+
+    @Benchmark
+    public byte[] monthlyTotals() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(monthlyTotals);
+    }
+
+    @Benchmark
+    public byte[] categoryTotals() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(categoryTotals);
+    }
+
+    @Benchmark
+    public byte[] summary() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summary);
+    }
+
+    @Benchmark
+    public byte[] dashboard() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dashboard);
+    }
+}
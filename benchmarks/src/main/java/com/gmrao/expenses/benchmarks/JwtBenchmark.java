@@ -0,0 +1,63 @@
+package com.gmrao.expenses.benchmarks;
+
+import com.gmrao.expenses.entity.Roles;
+import com.gmrao.expenses.entity.User;
+import com.gmrao.expenses.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue on login/refresh and token verification on every authenticated request. parseCached
+ * is the steady state of a client reusing its access token; parseUncached cycles through more
+ * tokens than the verified-token cache holds, so every call pays the HMAC check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final int TOKENS = 1024;
+
+    private JwtService jwtService;
+    private JwtService uncachedJwtService;
+    private User user;
+    private String token;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(10_000);
+        uncachedJwtService = new JwtService(1);
+        user = new User();
+        user.setId(42L);
+        user.setEmail("bench@example.com");
+        user.setRole(new Roles(2L, "USER"));
+        token = jwtService.generateAccessToken(user);
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = jwtService.generateAccessToken(user);
+        }
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public Claims parseCached() {
+        return jwtService.parse(token);
+    }
+
+    @Benchmark
+    public Claims parseUncached() {
+        next = (next + 1) & (TOKENS - 1);
+        return uncachedJwtService.parse(tokens[next]);
+    }
+}
@@ -29,7 +29,7 @@ export function AuthProvider({ children }) {
         if (storedUser) {
             try {
                 const parsed = JSON.parse(storedUser);
-                // stored user was saved WITHOUT the raw photo bytes (we remove them on login)
+                // stored user only carries the photo URL, never the bytes
                 setUser(parsed);
             } catch (err) {
                 console.error("Failed parse stored user", err);
@@ -42,20 +42,12 @@ export function AuthProvider({ children }) {
                 try {
                     const resp = await profileService.getProfile();
                     const data = resp.data || {};
-                    if (data.photo) {
-                        const bytes = Array.isArray(data.photo) ? data.photo : data.photo.data;
-                        if (bytes && bytes.length > 0) {
-                            const arr = new Uint8Array(bytes);
-                            const mime = data.photoType || "image/jpeg";
-                            const blob = new Blob([arr], { type: mime });
-                            const url = URL.createObjectURL(blob);
-                            safeRevoke(photoObjectUrl);
-                            setPhotoObjectUrl(url);
-                            setPhoto(url);
-                        } else {
-                            safeRevoke(photoObjectUrl);
-                            setPhoto(null);
-                        }
+                    // the navbar only needs the small avatar rendition
+                    if (data.avatarUrl) {
+                        const url = await profileService.fetchPhoto(data.avatarUrl);
+                        safeRevoke(photoObjectUrl);
+                        setPhotoObjectUrl(url);
+                        setPhoto(url);
                     } else {
                         safeRevoke(photoObjectUrl);
                         setPhoto(null);
@@ -86,20 +78,16 @@ export function AuthProvider({ children }) {
         localStorage.setItem("loginTime", Date.now());
         localStorage.setItem('authToken', data.token);
 
-        // Handle photo bytes (if any) -> Blob -> URL and DO NOT persist bytes in localStorage
-        if (data.user.photo) {
-            const bytes = Array.isArray(data.user.photo) ? data.user.photo : data.user.photo.data;
-            if (bytes && bytes.length > 0) {
-                const arr = new Uint8Array(bytes);
-                const mime = data.user.photoType || "image/jpeg";
-                const blob = new Blob([arr], { type: mime });
-                const url = URL.createObjectURL(blob);
+        // Fetch the photo (if any) from its URL -> Blob -> URL; nothing heavy is persisted in localStorage
+        if (data.user.photoUrl) {
+            try {
+                const url = await profileService.fetchPhoto(data.user.photoUrl);
 
                 // revoke previous if any
                 safeRevoke(photoObjectUrl);
                 setPhotoObjectUrl(url);
                 setPhoto(url);
-            } else {
+            } catch (e) {
                 safeRevoke(photoObjectUrl);
                 setPhoto(null);
             }
@@ -108,11 +96,7 @@ export function AuthProvider({ children }) {
             setPhoto(null);
         }
 
-        // Save user WITHOUT photo bytes (to avoid huge localStorage entries)
-        // Create a shallow copy and remove photo data
         const userToStore = { ...data.user };
-        if (userToStore.photo) delete userToStore.photo;
-        if (userToStore.photoType) delete userToStore.photoType;
         localStorage.setItem('authUser', JSON.stringify(userToStore));
 
         return data.user;
@@ -134,8 +118,6 @@ export function AuthProvider({ children }) {
             setPhoto(null);
             localStorage.setItem("authToken", data.token);
             const userToStore = { ...data.user };
-            if (userToStore.photo) delete userToStore.photo;
-            if (userToStore.photoType) delete userToStore.photoType;
             localStorage.setItem("authUser", JSON.stringify(userToStore));
         }
 
@@ -86,15 +86,15 @@ export default function Dashboard() {
 
   const loadDashboardData = async () => {
     try {
-      const [monthly, categories, summaryData] = await Promise.all([
-        expenseService.getMonthlyExpenses(user.id),
-        expenseService.getCategoryExpenses(user.id),
-        expenseService.getSummary(user.id),
-      ]);
-
-      setMonthlyData(monthly);
-      setCategoryData(categories);
-      setSummary(summaryData);
+      const dashboard = await expenseService.getDashboard();
+
+      setMonthlyData(dashboard.monthly);
+      setCategoryData(dashboard.categories);
+      setSummary({
+        totalSpent: dashboard.totalSpent,
+        highestCategory: dashboard.highestCategory,
+        avgMonthly: dashboard.avgMonthly,
+      });
     } finally {
       setLoading(false);
     }
@@ -343,7 +343,7 @@ export default function Dashboard() {
                     datasets: [
                       {
                         label: "Amount Spent",
-                        data: categoryData.map((c) => c.amount),
+                        data: categoryData.map((c) => c.total),
                         backgroundColor: categoryData.map((_, index) =>
                           CATEGORY_COLORS[index % CATEGORY_COLORS.length]
                         ),
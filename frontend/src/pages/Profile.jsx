@@ -21,14 +21,6 @@ import { useNavigate } from "react-router-dom";
 import profileService from "../services/profileService";
 import useAuth from "../hooks/useAuth";
 
-// utility to create object url from byte[] (and return also mime)
-function bytesToObjectUrl(bytes, mime = "image/jpeg") {
-  const arr = new Uint8Array(bytes);
-  const blob = new Blob([arr], { type: mime });
-  const url = URL.createObjectURL(blob);
-  return url;
-}
-
 // getCroppedImg helper (keeps same behavior as before)
 const createImage = (url) => new Promise((resolve, reject) => {
   const img = new Image();
@@ -179,11 +171,9 @@ export default function Profile() {
         setCountry(data.countryId || "");
       }
 
-      // If backend returned photo bytes, convert to blob url and set preview
-      if (data.photo) {
-        const arr = new Uint8Array(data.photo);
-        const blob = new Blob([arr], { type: data.photoType });
-        const url = URL.createObjectURL(blob);
+      // If backend returned a photo URL, fetch it as a blob url and set preview
+      if (data.photoUrl) {
+        const url = await profileService.fetchPhoto(data.photoUrl);
         // revoke previous preview if needed
         if (previewRef.current && previewRef.current.startsWith("blob:")) {
           URL.revokeObjectURL(previewRef.current);
@@ -238,25 +228,7 @@ export default function Profile() {
       // perform upload
       await profileService.uploadPhoto(file, setUploadProgress);
 
-      // fetch refreshed profile; convert server bytes -> object URL
-      const refreshed = await profileService.getProfile();
-      if (refreshed.data?.photo) {
-        const bytes = Array.isArray(refreshed.data.photo)
-          ? refreshed.data.photo
-          : refreshed.data.photo.data;
-        if (bytes?.length > 0) {
-          const mime = refreshed.data.photoType || "image/jpeg";
-          const newUrl = bytesToObjectUrl(bytes, mime);
-
-          // revoke local preview if blob
-          if (previewRef.current && previewRef.current.startsWith("blob:")) {
-            URL.revokeObjectURL(previewRef.current);
-          }
-          setPreviewPhoto(newUrl);
-          previewRef.current = newUrl;
-          setPhoto(newUrl);
-        }
-      }
+      // the server resizes the photo in the background; keep the local preview until the next load
 
       toast({ title: "Photo updated", status: "success" });
 
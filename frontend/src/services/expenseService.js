@@ -4,6 +4,12 @@ const expenseService = {
   getExpenses: (userId, params = {}) =>
     apiService.get(`/expenses/list`, { params: { userId, ...params } }),
 
+  getExpensePage: (cursor, size = 20) =>
+    apiService.get(`/expenses/page`, { params: { cursor, size } }),
+
+  searchExpenses: (filters = {}, page = 0, size = 20) =>
+    apiService.get(`/expenses/search`, { params: { ...filters, page, size } }),
+
   createExpense: (expense) =>
     apiService.post(`/expenses/add`, expense, { successMessage: "Expense added!" }),
 
@@ -16,6 +22,7 @@ const expenseService = {
   fetchExpense: (id) =>
     apiService.get(`/expenses/${id}`, { successMessage: "Expense Fetched!" }),
 
+  getDashboard: () => apiService.get("/expenses/dashboard"),
   getSummary: (userId) => apiService.get("/expenses/summary", { params: { userId } }),
   exportData: () => apiService.get("/expenses/export"),
   getMonthlyExpenses: (userId) =>
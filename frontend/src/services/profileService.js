@@ -37,6 +37,12 @@ const uploadPhoto = (file, onProgress) => {
   });
 };
 
+// Download the photo behind a photoUrl ("/api/user/photo?size=...&v=...") and expose it as a blob URL
+const fetchPhoto = async (photoUrl) => {
+  const res = await api.get(photoUrl.replace(/^\/api/, ""), { responseType: "blob" });
+  return URL.createObjectURL(res.data);
+};
+
 const deletePhoto = async () => {
   return await api.delete("/user/photo");
 }
@@ -69,4 +75,5 @@ export default {
   states,
   countries,
   deletePhoto,
+  fetchPhoto,
 };
@@ -0,0 +1,203 @@
+package com.gmrao.expenses.loadtest;
+
+import com.gmrao.expenses.enums.Category;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seeds lt.users users with lt.expenses-per-user expenses each, plus their rollups, straight over
+ * JDBC with batched multi-row inserts. Users are split into contiguous id ranges, one per seeding
+ * connection. The data is deterministic per user id, so two seeded databases of the same size hold
+ * the same rows. A data dir that already holds exactly the requested population is reused as is.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DataSeeder {
+
+    public record SeededUser(long id, String email) {}
+
+    private static final String EMAIL_DOMAIN = "@loadtest.local";
+    // every seeded user can also log in through the API with this password
+    public static final String PASSWORD = "LoadTest#2024";
+
+    private static final int BATCH_SIZE = 5_000;
+    private static final int DAYS_OF_HISTORY = 730;
+    private static final String[] TITLES = {
+            "Groceries", "Coffee", "Lunch", "Taxi", "Bus pass", "Electricity", "Internet", "Movie",
+            "Pharmacy", "Gym", "Books", "Dinner", "Fuel", "Water bill", "Concert", "Doctor"
+    };
+
+    private final EmbeddedDatabase database;
+    private final LoadTestConfig config;
+
+    public List<SeededUser> seed() throws Exception {
+        try (Connection c = database.connect()) {
+            long seededUsers = count(c, "SELECT COUNT(*) FROM users WHERE email LIKE '%" + EMAIL_DOMAIN + "'");
+            if (seededUsers == 0) {
+                populate(c);
+            } else if (seededUsers == config.users() && count(c, "SELECT COUNT(*) FROM expenses") == config.expectedExpenses()) {
+                log.info("Reusing the seeded population of {} users x {} expenses", config.users(), config.expensesPerUser());
+            } else {
+                throw new IllegalStateException("The database already holds a different population (" + seededUsers
+                        + " users); point lt.data-dir at an empty directory");
+            }
+            return loadUsers(c);
+        }
+    }
+
+    private void populate(Connection c) throws Exception {
+        long roleId = count(c, "SELECT id FROM roles WHERE name = 'USER'");
+        long firstUserId = count(c, "SELECT COALESCE(MAX(id), 0) FROM users") + 1;
+        long firstExpenseId = count(c, "SELECT COALESCE(MAX(id), 0) FROM expenses") + 1;
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+
+        int threads = Math.max(1, Math.min(config.seedThreads(), config.users()));
+        int perThread = (config.users() + threads - 1) / threads;
+        AtomicLong inserted = new AtomicLong();
+        long started = System.nanoTime();
+        log.info("Seeding {} users x {} expenses on {} connections", config.users(), config.expensesPerUser(), threads);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> ranges = new ArrayList<>();
+            for (int from = 0; from < config.users(); from += perThread) {
+                int start = from;
+                int end = Math.min(config.users(), from + perThread);
+                ranges.add(pool.submit(() -> {
+                    seedRange(start, end, firstUserId, firstExpenseId, roleId, passwordHash, inserted, started);
+                    return null;
+                }));
+            }
+            for (Future<?> range : ranges) {
+                range.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        try (Statement s = c.createStatement()) {
+            // same rule as V3: the pooled generator starts above every id handed out so far
+            s.executeUpdate("UPDATE id_generators SET next_val = (SELECT COALESCE(MAX(id), 0) + 100 FROM expenses) WHERE name = 'expenses'");
+            s.execute("ANALYZE TABLE users, expenses, expense_rollups");
+        }
+        log.info("Seeded {} expenses in {}s", inserted.get(), (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    // users [start, end) of the population, with their expenses and rollups
+    private void seedRange(int start, int end, long firstUserId, long firstExpenseId, long roleId, String passwordHash,
+                           AtomicLong inserted, long started) throws SQLException {
+        try (Connection c = database.connect()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement users = c.prepareStatement("""
+                    INSERT INTO users (id, name, email, username, password, role_id, created_at, updated_at, phone, gender, date_of_birth)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """)) {
+                LocalDateTime now = LocalDateTime.now();
+                for (int i = start; i < end; i++) {
+                    users.setLong(1, firstUserId + i);
+                    users.setString(2, "Load User " + i);
+                    users.setString(3, "load" + i + EMAIL_DOMAIN);
+                    users.setString(4, "load" + i);
+                    users.setString(5, passwordHash);
+                    users.setLong(6, roleId);
+                    users.setObject(7, now);
+                    users.setObject(8, now);
+                    users.setString(9, String.format("9%09d", i));
+                    users.setString(10, i % 2 == 0 ? "Female" : "Male");
+                    users.setObject(11, LocalDate.of(1970 + i % 35, 1 + i % 12, 1 + i % 28));
+                    users.addBatch();
+                }
+                users.executeBatch();
+                c.commit();
+            }
+
+            LocalDate today = LocalDate.now();
+            Category[] categories = Category.values();
+            try (PreparedStatement expenses = c.prepareStatement("""
+                    INSERT INTO expenses (id, user_id, title, category, amount, expense_date, created_at)
+                    VALUES (?, ?, ?, ?, ?, ?, ?)
+                    """)) {
+                int pending = 0;
+                for (int i = start; i < end; i++) {
+                    long userId = firstUserId + i;
+                    SplittableRandom random = new SplittableRandom(userId);
+                    long expenseId = firstExpenseId + (long) i * config.expensesPerUser();
+                    for (int n = 0; n < config.expensesPerUser(); n++) {
+                        LocalDate date = today.minusDays(random.nextInt(DAYS_OF_HISTORY));
+                        expenses.setLong(1, expenseId + n);
+                        expenses.setLong(2, userId);
+                        expenses.setString(3, TITLES[random.nextInt(TITLES.length)] + " " + n);
+                        expenses.setString(4, categories[random.nextInt(categories.length)].name());
+                        expenses.setBigDecimal(5, BigDecimal.valueOf(random.nextLong(100, 2_500_00), 2));
+                        expenses.setObject(6, date);
+                        expenses.setObject(7, date.atTime(8 + random.nextInt(14), random.nextInt(60)));
+                        expenses.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            flush(c, expenses, pending, inserted, started);
+                            pending = 0;
+                        }
+                    }
+                }
+                if (pending > 0) {
+                    flush(c, expenses, pending, inserted, started);
+                }
+            }
+
+            // same aggregation as ExpenseRollupRepository.rebuildForUser, for the whole range at once
+            try (PreparedStatement rollups = c.prepareStatement("""
+                    INSERT INTO expense_rollups (user_id, period_start, category, total, expense_count)
+                    SELECT e.user_id, DATE_FORMAT(e.expense_date, '%Y-%m-01'), e.category, SUM(e.amount), COUNT(*)
+                    FROM expenses e
+                    WHERE e.user_id BETWEEN ? AND ?
+                    GROUP BY e.user_id, DATE_FORMAT(e.expense_date, '%Y-%m-01'), e.category
+                    """)) {
+                rollups.setLong(1, firstUserId + start);
+                rollups.setLong(2, firstUserId + end - 1);
+                rollups.executeUpdate();
+                c.commit();
+            }
+        }
+    }
+
+    private void flush(Connection c, PreparedStatement expenses, int rows, AtomicLong inserted, long started)
+            throws SQLException {
+        expenses.executeBatch();
+        c.commit();
+        long total = inserted.addAndGet(rows);
+        long step = Math.max(BATCH_SIZE, config.expectedExpenses() / 20);
+        if (total % step < rows) {
+            long seconds = Math.max(1, (System.nanoTime() - started) / 1_000_000_000);
+            log.info("  {} / {} expenses ({} rows/s)", total, config.expectedExpenses(), total / seconds);
+        }
+    }
+
+    private List<SeededUser> loadUsers(Connection c) throws SQLException {
+        List<SeededUser> users = new ArrayList<>(config.users());
+        try (Statement s = c.createStatement();
+             ResultSet rs = s.executeQuery("SELECT id, email FROM users WHERE email LIKE '%" + EMAIL_DOMAIN + "' ORDER BY id")) {
+            while (rs.next()) {
+                users.add(new SeededUser(rs.getLong(1), rs.getString(2)));
+            }
+        }
+        return users;
+    }
+
+    private static long count(Connection c, String sql) throws SQLException {
+        try (Statement s = c.createStatement(); ResultSet rs = s.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
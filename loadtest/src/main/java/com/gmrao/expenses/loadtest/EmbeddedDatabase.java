@@ -0,0 +1,78 @@
+package com.gmrao.expenses.loadtest;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * MariaDB server unpacked from the classpath and run as a child process on a free port. The
+ * database is created over JDBC rather than with DB.createDB, which shells out to the mysql
+ * client and so needs the client's native libraries on the host.
+ */
+@Slf4j
+public class EmbeddedDatabase implements AutoCloseable {
+
+    public static final String DATABASE = "expense_tracker";
+    public static final String USERNAME = "root";
+    public static final String PASSWORD = "";
+
+    private final DBConfigurationBuilder config;
+    private final DB db;
+
+    private EmbeddedDatabase(DBConfigurationBuilder config, DB db) {
+        this.config = config;
+        this.db = db;
+    }
+
+    public static EmbeddedDatabase start(LoadTestConfig settings) throws ManagedProcessException, SQLException {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder().setPort(0);
+        if (!settings.dataDir().isBlank()) {
+            config.setDataDir(settings.dataDir());
+            config.setDeletingTemporaryBaseAndDataDirsOnShutdown(false);
+        }
+        // mariadbd refuses to run as root unless told to
+        if ("root".equals(System.getProperty("user.name"))) {
+            config.addArg("--user=root");
+        }
+        config.addArg("--innodb-buffer-pool-size=" + settings.bufferPool());
+        config.addArg("--max-connections=500");
+
+        DB db = DB.newEmbeddedDB(config.build());
+        db.start();
+        EmbeddedDatabase database = new EmbeddedDatabase(config, db);
+        try (Connection c = DriverManager.getConnection(database.url("mysql"), USERNAME, PASSWORD);
+             Statement s = c.createStatement()) {
+            s.execute("CREATE DATABASE IF NOT EXISTS " + DATABASE + " CHARACTER SET utf8mb4");
+        } catch (SQLException e) {
+            db.stop();
+            throw e;
+        }
+        log.info("MariaDB listening on port {}, data in {}", config.getPort(),
+                settings.dataDir().isBlank() ? "a temporary directory" : settings.dataDir());
+        return database;
+    }
+
+    public String jdbcUrl() {
+        return url(DATABASE) + "?rewriteBatchedStatements=true";
+    }
+
+    // the application's own MySQL driver, not the MariaDB one getURL() assumes
+    private String url(String database) {
+        return "jdbc:mysql://localhost:" + config.getPort() + "/" + database;
+    }
+
+    public Connection connect() throws SQLException {
+        return DriverManager.getConnection(jdbcUrl(), USERNAME, PASSWORD);
+    }
+
+    @Override
+    public void close() throws ManagedProcessException {
+        db.stop();
+    }
+}
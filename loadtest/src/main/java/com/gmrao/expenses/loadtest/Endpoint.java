@@ -0,0 +1,36 @@
+package com.gmrao.expenses.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * GET endpoints the clients can hit, addressed by name in lt.mix.
+ */
+@Getter
+@AllArgsConstructor
+public enum Endpoint {
+    LIST("list", "/api/expenses/list"),
+    PAGE("page", "/api/expenses/page?size=20"),
+    SEARCH("search", "/api/expenses/search?category=Food&size=20"),
+    MONTHLY("monthly", "/api/expenses/monthly"),
+    CATEGORIES("categories", "/api/expenses/categories"),
+    SUMMARY("summary", "/api/expenses/summary"),
+    DASHBOARD("dashboard", "/api/expenses/dashboard"),
+    EXPORT("export", "/api/expenses/export"),
+    EXPORT_CSV("export-csv", "/api/expenses/export?format=csv"),
+    PROFILE("profile", "/api/user");
+
+    private final String label;
+    private final String path;
+
+    public static Endpoint byLabel(String label) {
+        return Arrays.stream(values())
+                .filter(endpoint -> endpoint.label.equals(label))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown endpoint " + label + ", expected one of "
+                        + Arrays.stream(values()).map(Endpoint::getLabel).collect(Collectors.joining(", "))));
+    }
+}
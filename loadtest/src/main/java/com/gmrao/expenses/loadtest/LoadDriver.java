@@ -0,0 +1,130 @@
+package com.gmrao.expenses.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop clients, one virtual thread each: pick an endpoint by weight and a random seeded
+ * user, send the request, read the whole body, record the latency, repeat. Latencies are kept in
+ * microseconds per endpoint; the warmup interval is recorded and then thrown away so the report
+ * covers only the measured window. Being closed-loop, a slow server also slows the offered load,
+ * so compare runs at the same lt.clients.
+ */
+@Slf4j
+public class LoadDriver {
+
+    public record EndpointResult(Endpoint endpoint, Histogram latencies, long errors) {}
+
+    public record Result(List<EndpointResult> endpoints, Duration measured) {}
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final LoadTestConfig config;
+    private final URI baseUri;
+    private final List<String> tokens;
+    private final Endpoint[] weighted;
+    private final Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+    private final Set<Endpoint> reportedErrors = ConcurrentHashMap.newKeySet();
+
+    public LoadDriver(LoadTestConfig config, URI baseUri, List<String> tokens) {
+        this.config = config;
+        this.baseUri = baseUri;
+        this.tokens = tokens;
+        this.weighted = config.mix().entrySet().stream()
+                .flatMap(e -> Collections.nCopies(e.getValue(), e.getKey()).stream())
+                .toArray(Endpoint[]::new);
+        for (Endpoint endpoint : config.mix().keySet()) {
+            recorders.put(endpoint, new Recorder(MAX_LATENCY_MICROS, 3));
+            errors.put(endpoint, new LongAdder());
+        }
+    }
+
+    public Result run() throws InterruptedException {
+        long warmupEnd = System.nanoTime() + config.warmup().toNanos();
+        long end = warmupEnd + config.duration().toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .build()) {
+            for (int i = 0; i < config.clients(); i++) {
+                clients.submit(() -> client(http, end));
+            }
+            log.info("{} clients warming up for {}s", config.clients(), config.warmup().toSeconds());
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, warmupEnd - System.nanoTime()));
+            recorders.values().forEach(Recorder::reset);
+            errors.values().forEach(LongAdder::reset);
+            long measureStart = System.nanoTime();
+            log.info("Measuring for {}s", config.duration().toSeconds());
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, end - System.nanoTime()));
+
+            List<EndpointResult> results = config.mix().keySet().stream()
+                    .map(endpoint -> new EndpointResult(endpoint, recorders.get(endpoint).getIntervalHistogram(),
+                            errors.get(endpoint).sum()))
+                    .toList();
+            Duration measured = Duration.ofNanos(System.nanoTime() - measureStart);
+            clients.shutdownNow();
+            return new Result(results, measured);
+        }
+    }
+
+    private void client(HttpClient http, long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+            Endpoint endpoint = weighted[random.nextInt(weighted.length)];
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(endpoint.getPath()))
+                    .header("Authorization", "Bearer " + tokens.get(random.nextInt(tokens.size())))
+                    .timeout(config.requestTimeout())
+                    .GET()
+                    .build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                if (response.statusCode() == 200) {
+                    recorders.get(endpoint).recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+                } else {
+                    error(endpoint, "HTTP " + response.statusCode());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                error(endpoint, e.toString());
+            }
+            if (!config.thinkTime().isZero()) {
+                try {
+                    Thread.sleep(config.thinkTime());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    // counted always, logged once per endpoint so a misconfigured run is obvious without flooding the console
+    private void error(Endpoint endpoint, String cause) {
+        errors.get(endpoint).increment();
+        if (reportedErrors.add(endpoint)) {
+            log.warn("{} failed: {}", endpoint.getLabel(), cause);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.gmrao.expenses.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prints the per-endpoint table and writes ${lt.results-dir}/${lt.label}/: summary.json with the
+ * settings and headline numbers, and one HdrHistogram percentile distribution (.hgrm, in
+ * milliseconds) per endpoint that can be plotted or compared with the usual HdrHistogram tools.
+ */
+public final class LoadReport {
+
+    public record EndpointSummary(String endpoint, long requests, long errors, double throughput,
+                                  double meanMs, double p50Ms, double p90Ms, double p99Ms, double p999Ms,
+                                  double maxMs) {}
+
+    public record Summary(String label, Map<String, Object> settings, double measuredSeconds,
+                          List<EndpointSummary> endpoints, EndpointSummary total) {}
+
+    private static final double MICROS_PER_MS = 1000.0;
+
+    private LoadReport() {
+    }
+
+    public static Summary summarize(LoadTestConfig config, LoadDriver.Result result) {
+        double seconds = result.measured().toNanos() / 1e9;
+        List<EndpointSummary> endpoints = new ArrayList<>();
+        Histogram all = new Histogram(3);
+        long allErrors = 0;
+        for (LoadDriver.EndpointResult endpoint : result.endpoints()) {
+            endpoints.add(summary(endpoint.endpoint().getLabel(), endpoint.latencies(), endpoint.errors(), seconds));
+            all.add(endpoint.latencies());
+            allErrors += endpoint.errors();
+        }
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("users", config.users());
+        settings.put("expensesPerUser", config.expensesPerUser());
+        settings.put("clients", config.clients());
+        settings.put("warmupSeconds", config.warmup().toSeconds());
+        settings.put("durationSeconds", config.duration().toSeconds());
+        settings.put("thinkTimeMs", config.thinkTime().toMillis());
+        settings.put("mix", config.mix().entrySet().stream()
+                .map(e -> e.getKey().getLabel() + "=" + e.getValue()).toList());
+        return new Summary(config.label(), settings, seconds, endpoints, summary("total", all, allErrors, seconds));
+    }
+
+    public static void print(Summary summary, PrintStream out) {
+        out.printf("%n%d users x %d expenses, %d clients, %.0fs measured%n",
+                summary.settings().get("users"), summary.settings().get("expensesPerUser"),
+                summary.settings().get("clients"), summary.measuredSeconds());
+        String format = "%-12s %10s %8s %10s %9s %9s %9s %9s %9s %9s%n";
+        out.printf(format, "endpoint", "requests", "errors", "req/s", "mean ms", "p50 ms", "p90 ms", "p99 ms",
+                "p99.9 ms", "max ms");
+        for (EndpointSummary endpoint : summary.endpoints()) {
+            row(out, endpoint);
+        }
+        row(out, summary.total());
+    }
+
+    public static Path write(LoadTestConfig config, Summary summary, LoadDriver.Result result) throws IOException {
+        Path dir = Path.of(config.resultsDir(), config.label());
+        Files.createDirectories(dir);
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(dir.resolve("summary.json").toFile(), summary);
+        for (LoadDriver.EndpointResult endpoint : result.endpoints()) {
+            try (PrintStream out = new PrintStream(dir.resolve(endpoint.endpoint().getLabel() + ".hgrm").toFile())) {
+                endpoint.latencies().outputPercentileDistribution(out, MICROS_PER_MS);
+            }
+        }
+        return dir;
+    }
+
+    private static EndpointSummary summary(String name, Histogram h, long errors, double seconds) {
+        long requests = h.getTotalCount();
+        return new EndpointSummary(name, requests, errors, requests / seconds,
+                requests == 0 ? 0 : h.getMean() / MICROS_PER_MS,
+                ms(h, 50), ms(h, 90), ms(h, 99), ms(h, 99.9),
+                h.getMaxValue() / MICROS_PER_MS);
+    }
+
+    private static double ms(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / MICROS_PER_MS;
+    }
+
+    private static void row(PrintStream out, EndpointSummary s) {
+        out.printf("%-12s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", s.endpoint(), s.requests(),
+                s.errors(), s.throughput(), s.meanMs(), s.p50Ms(), s.p90Ms(), s.p99Ms(), s.p999Ms(), s.maxMs());
+    }
+}
@@ -0,0 +1,91 @@
+package com.gmrao.expenses.loadtest;
+
+import com.gmrao.expenses.ExpensesTrackerApplication;
+import com.gmrao.expenses.entity.Roles;
+import com.gmrao.expenses.entity.User;
+import com.gmrao.expenses.service.JwtService;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Entry point: start MariaDB, apply the application's migrations, seed, boot the application on a
+ * random port against that database, mint an access token per seeded user and drive traffic.
+ * Everything runs in this JVM and on localhost, so no network access or external MySQL is needed.
+ */
+@Slf4j
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        try (EmbeddedDatabase database = EmbeddedDatabase.start(config)) {
+            Flyway.configure()
+                    .dataSource(database.jdbcUrl(), EmbeddedDatabase.USERNAME, EmbeddedDatabase.PASSWORD)
+                    .locations("classpath:db/migration")
+                    .load()
+                    .migrate();
+            List<DataSeeder.SeededUser> users = new DataSeeder(database, config).seed();
+
+            try (ConfigurableApplicationContext app = boot(database)) {
+                int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+                List<String> tokens = tokens(app.getBean(JwtService.class), users);
+
+                LoadDriver.Result result = new LoadDriver(config, URI.create("http://localhost:" + port), tokens).run();
+                LoadReport.Summary summary = LoadReport.summarize(config, result);
+                LoadReport.print(summary, System.out);
+                Path dir = LoadReport.write(config, summary, result);
+                System.out.println("Results written to " + dir.toAbsolutePath());
+            }
+        }
+    }
+
+    // system properties outrank application.yaml, and anything already given with -D is left alone
+    private static ConfigurableApplicationContext boot(EmbeddedDatabase database) {
+        setDefault("spring.datasource.url", database.jdbcUrl());
+        setDefault("spring.datasource.username", EmbeddedDatabase.USERNAME);
+        setDefault("spring.datasource.password", EmbeddedDatabase.PASSWORD);
+        setDefault("spring.jpa.show-sql", "false");
+        setDefault("spring.mail.username", "loadtest");
+        setDefault("spring.mail.password", "loadtest");
+        setDefault("expenses.mail-outbox.body-key", randomKey());
+        setDefault("spring.main.banner-mode", "off");
+        setDefault("server.port", "0");
+        log.info("Starting the application");
+        return SpringApplication.run(ExpensesTrackerApplication.class);
+    }
+
+    private static List<String> tokens(JwtService jwtService, List<DataSeeder.SeededUser> users) {
+        Roles role = new Roles(null, "USER");
+        return users.stream().map(seeded -> {
+            User user = new User();
+            user.setId(seeded.id());
+            user.setEmail(seeded.email());
+            user.setRole(role);
+            return jwtService.generateAccessToken(user);
+        }).toList();
+    }
+
+    // nothing is mailed during a run, so a throwaway key is enough
+    private static String randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.gmrao.expenses.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from lt.* system properties.
+ *
+ * <pre>
+ * lt.users               seeded users                               (1000)
+ * lt.expenses-per-user   expenses seeded for each user               (1000)
+ * lt.seed-threads        parallel seeding connections                (CPUs)
+ * lt.data-dir            keep the database here and reuse a matching
+ *                        population on the next run; empty = temp dir.
+ *                        Must lie outside java.io.tmpdir, which MariaDB4j
+ *                        wipes on start
+ * lt.buffer-pool         InnoDB buffer pool of the embedded server   (1G)
+ * lt.clients             concurrent virtual-thread clients           (64)
+ * lt.warmup              traffic before measuring starts             (15s)
+ * lt.duration            measured traffic                            (60s)
+ * lt.think-time          pause between a client's requests           (0ms)
+ * lt.request-timeout     per request                                 (30s)
+ * lt.mix                 endpoint=weight list, names from Endpoint   (list=5,summary=4,export=1)
+ * lt.label               results go to ${lt.results-dir}/${lt.label} (timestamp)
+ * lt.results-dir                                                     (loadtest/results)
+ * </pre>
+ */
+public record LoadTestConfig(int users,
+                             int expensesPerUser,
+                             int seedThreads,
+                             String dataDir,
+                             String bufferPool,
+                             int clients,
+                             Duration warmup,
+                             Duration duration,
+                             Duration thinkTime,
+                             Duration requestTimeout,
+                             Map<Endpoint, Integer> mix,
+                             String label,
+                             String resultsDir) {
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("lt.users", 1000),
+                Integer.getInteger("lt.expenses-per-user", 1000),
+                Integer.getInteger("lt.seed-threads", Runtime.getRuntime().availableProcessors()),
+                System.getProperty("lt.data-dir", ""),
+                System.getProperty("lt.buffer-pool", "1G"),
+                Integer.getInteger("lt.clients", 64),
+                duration("lt.warmup", "15s"),
+                duration("lt.duration", "60s"),
+                duration("lt.think-time", "0ms"),
+                duration("lt.request-timeout", "30s"),
+                mix(System.getProperty("lt.mix", "list=5,summary=4,export=1")),
+                System.getProperty("lt.label",
+                        LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))),
+                System.getProperty("lt.results-dir", "loadtest/results"));
+    }
+
+    public long expectedExpenses() {
+        return (long) users * expensesPerUser;
+    }
+
+    private static Duration duration(String key, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(key, defaultValue));
+    }
+
+    private static Map<Endpoint, Integer> mix(String value) {
+        Map<Endpoint, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] kv = part.trim().split("=");
+            Endpoint endpoint = Endpoint.byLabel(kv[0].trim());
+            int weight = kv.length > 1 ? Integer.parseInt(kv[1].trim()) : 1;
+            if (weight > 0) {
+                mix.put(endpoint, weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("lt.mix selects no endpoint: " + value);
+        }
+        return mix;
+    }
+}